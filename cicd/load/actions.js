@@ -0,0 +1,91 @@
+// Test de charge k6 : comparaison du mode classique (pool de threads Tomcat) et du profil "virtual"
+//
+// Lancer l'application deux fois sur la même base, puis le même scénario contre chacune :
+//   java -jar target/mon-app.jar --spring.profiles.active=docker
+//   java -Djdk.tracePinnedThreads=short -jar target/mon-app.jar --spring.profiles.active=docker,virtual
+//   k6 run -e BASE_URL=http://localhost:8080 -e VUS=2000 --summary-export=summary-<mode>.json cicd/load/actions.js
+//
+// Comparer entre les deux exécutions :
+// - http_req_duration p(95)/p(99) et http_reqs (débit) dans le résumé k6
+// - http://localhost:9090/actuator/prometheus (port de gestion) : hikaricp_connections_pending, planit_vthreads_pinned_total (profil virtual),
+//   jvm_threads_live_threads, planit_log_dropped_total
+// Le pool JDBC (DB_POOL_SIZE) reste la limite commune : à pool égal, le gain attendu du mode virtuel
+// porte surtout sur la mémoire et les requêtes qui attendent Mongo ou le réseau, pas sur le débit SQL brut.
+
+import http from 'k6/http';
+import { check, sleep } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const VUS = parseInt(__ENV.VUS || '2000', 10);
+// Utilisateurs partagés par les clients virtuels (chaque utilisateur a son propre compteur de version)
+const USERS = parseInt(__ENV.USERS || '200', 10);
+
+export const options = {
+    setupTimeout: '5m',
+    scenarios: {
+        clients: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '1m', target: VUS },
+                { duration: '3m', target: VUS },
+                { duration: '30s', target: 0 },
+            ],
+            gracefulRampDown: '30s',
+        },
+    },
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+        'http_req_duration{name:list}': ['p(95)<1000'],
+        'http_req_duration{name:create}': ['p(95)<1500'],
+    },
+};
+
+const JSON_HEADERS = { 'Content-Type': 'application/json' };
+
+// Crée (ou réutilise) les comptes et récupère un JWT par compte
+export function setup() {
+    const tokens = [];
+    for (let i = 0; i < USERS; i++) {
+        const user = {
+            username: `load-${i}`,
+            password: 'load-password',
+            name: 'Load',
+            surname: `User${i}`,
+            genre: 'F',
+            role: 'ROLE_USER',
+        };
+        http.post(`${BASE_URL}/auth/register`, JSON.stringify(user), { headers: JSON_HEADERS });
+        const res = http.post(`${BASE_URL}/auth/login`,
+            JSON.stringify({ username: user.username, password: user.password }), { headers: JSON_HEADERS });
+        check(res, { 'login 200': (r) => r.status === 200 });
+        tokens.push(res.json('token'));
+    }
+    return { tokens };
+}
+
+export default function (data) {
+    const token = data.tokens[(__VU - 1) % data.tokens.length];
+    const auth = { Authorization: `Bearer ${token}` };
+
+    // Liste (avec revalidation : 304 si rien n'a changé pour cet utilisateur)
+    const list = http.get(`${BASE_URL}/api/action`, { headers: auth, tags: { name: 'list' } });
+    check(list, { 'list 200/304': (r) => r.status === 200 || r.status === 304 });
+    http.get(`${BASE_URL}/api/action`, {
+        headers: Object.assign({ 'If-None-Match': list.headers['Etag'] || '' }, auth),
+        tags: { name: 'list' },
+    });
+
+    // Écritures : création puis modification partielle
+    const created = http.post(`${BASE_URL}/api/action`,
+        JSON.stringify({ title: `vu-${__VU}-${__ITER}`, completed: false }),
+        { headers: Object.assign({}, JSON_HEADERS, auth), tags: { name: 'create' } });
+    check(created, { 'create 201': (r) => r.status === 201 });
+    if (created.status === 201) {
+        http.patch(`${BASE_URL}/api/action/${created.json('id')}`, JSON.stringify({ completed: true }),
+            { headers: Object.assign({ 'Content-Type': 'application/merge-patch+json' }, auth), tags: { name: 'patch' } });
+    }
+
+    // Temps de réflexion d'un utilisateur réel
+    sleep(1 + Math.random());
+}
@@ -4,19 +4,29 @@
 // - Récupérer toutes les actions de l’utilisateur connecté (GET /api/action)
 // - Créer une nouvelle action (POST /api/action) avec enregistrement d’un log dans MongoDB
 // - Mettre à jour une action existante (PUT /api/action/{id}) avec enregistrement d’un log dans MongoDB
+// - Modifier partiellement une action (PATCH /api/action/{id}, JSON Merge Patch)
 // - Supprimer une action (DELETE /api/action/{id})
+// - Appliquer un lot d'opérations en une transaction (POST /api/action/batch)
+// - Synchroniser par différence depuis un jeton (GET /api/action/changes?since=)
+// - Recevoir les changements en direct (GET /api/action/stream, Server-Sent Events)
+// - Compteurs du tableau de bord (GET /api/action/stats)
+// - Rechercher dans le titre et la description (GET /api/action/search?q=)
 // Utilise ActionService pour la logique métier et LogDocumentService pour le suivi des actions (logs).
 
 // Déclaration du package dans lequel se trouve cette classe
 package com.descodeuses.planit.controller;
 
 // Import des classes nécessaires pour gérer les collections de données
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.security.core.Authentication;
 import org.springframework.beans.factory.annotation.Autowired;
 // Import des classes Spring pour gérer les réponses HTTP et les statuts
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
 // Import des annotations Spring pour gérer les requêtes HTTP spécifiques
@@ -24,20 +34,36 @@ import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 // Import des classes spécifiques au projet (DTO et service)
+import com.descodeuses.planit.dto.ActionBatchOperationDTO;
+import com.descodeuses.planit.dto.ActionBatchResultDTO;
+import com.descodeuses.planit.dto.ActionChangesDTO;
 import com.descodeuses.planit.dto.ActionDTO;
+import com.descodeuses.planit.dto.ActionFilterDTO;
+import com.descodeuses.planit.dto.ActionPageDTO;
+import com.descodeuses.planit.dto.ActionStatsDTO;
+import com.descodeuses.planit.dto.ActionSummaryDTO;
+import com.descodeuses.planit.service.ActionEventStream;
 import com.descodeuses.planit.service.ActionService;
+import com.descodeuses.planit.service.ActionStatsService;
 import com.descodeuses.planit.service.LogDocumentService;
 import com.descodeuses.planit.service.UserService;
+import com.descodeuses.planit.service.WatermarkService;
+import com.descodeuses.planit.service.WatermarkService.Watermark;
 
 import jakarta.servlet.http.HttpServletRequest;
 
 // Import d’autres annotations pour gérer les requêtes POST, PUT, path variables et corps de requête
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 
 // Indique que cette classe est un contrôleur REST capable de gérer des requêtes HTTP et retourner des réponses JSON
 @RestController
@@ -49,12 +75,19 @@ public class ActionController {
     // injection via constructeur
     private final ActionService service;
     private final UserService userService;
+    private final WatermarkService watermarks;
+    private final ActionEventStream eventStream;
+    private final ActionStatsService statsService;
 
     // Constructeur avec injection du service (Spring injecte automatiquement la
     // dépendance)
-    public ActionController(ActionService service, UserService userService) {
+    public ActionController(ActionService service, UserService userService, WatermarkService watermarks,
+            ActionEventStream eventStream, ActionStatsService statsService) {
         this.service = service;
         this.userService = userService;
+        this.watermarks = watermarks;
+        this.eventStream = eventStream;
+        this.statsService = statsService;
     }
 
  // Méthode pour gérer les requêtes GET vers /api/action/{id} : récupération
@@ -62,7 +95,8 @@ public class ActionController {
     @GetMapping("/{id}")
     public ResponseEntity<ActionDTO> getActionById(@PathVariable Long id, Authentication authentication) {
         ActionDTO actionDTO = service.getActionById(id, authentication);
-        return new ResponseEntity<>(actionDTO, HttpStatus.OK);
+        // L'ETag (version) est à renvoyer en If-Match lors d'une modification
+        return ResponseEntity.ok().eTag(ETags.of(actionDTO.getVersion())).body(actionDTO);
     }
 
     /* 
@@ -95,10 +129,44 @@ public class ActionController {
 
 
     // Récupère toutes les actions de l'utilisateur connecté
+    // ETag = compteur de modifications de l'utilisateur : 304 sans rien charger si inchangé
     @GetMapping
-    public ResponseEntity<List<ActionDTO>> getAllForUser(Authentication authentication) {
-        List<ActionDTO> actionsDTO = service.getAllByUser(authentication);
-        return new ResponseEntity<>(actionsDTO, HttpStatus.OK);
+    public ResponseEntity<List<ActionDTO>> getAllForUser(Authentication authentication, WebRequest request) {
+        String etag = ETags.of("action", watermarks.current(authentication));
+        return ETags.conditional(request, etag, () -> service.getAllByUser(authentication));
+    }
+
+    // Compteurs du tableau de bord (par projet, priorité, échéance), calculés par la base
+    // ETag = jour + compteur de modifications : 304 sans rien recalculer si inchangé
+    @GetMapping("/stats")
+    public ResponseEntity<ActionStatsDTO> getStats(Authentication authentication, WebRequest request) {
+        Watermark watermark = watermarks.current(authentication);
+        LocalDate today = LocalDate.now();
+        String etag = ETags.of("stats-" + today, watermark);
+        return ETags.conditional(request, etag, () -> statsService.getStats(watermark, today));
+    }
+
+    // Synchronisation différentielle : GET /api/action/changes?since=<token>
+    // (tâches créées / modifiées + ids supprimés depuis le jeton, liste complète sans jeton)
+    @GetMapping("/changes")
+    public ResponseEntity<ActionChangesDTO> getChanges(@RequestParam(required = false) Long since,
+            Authentication authentication) {
+        return new ResponseEntity<>(service.getChanges(since, authentication), HttpStatus.OK);
+    }
+
+    // Flux SSE des changements sur mes tâches et celles qui me sont assignées :
+    // événements ready (jeton de synchronisation), created, updated, deleted, sync
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(Authentication authentication) {
+        return eventStream.subscribe(watermarks.current(authentication));
+    }
+
+    // Variante légère pour l'affichage en liste : GET /api/action?view=summary
+    // (id, title, completed, dueDate, priorite, projetId uniquement)
+    @GetMapping(params = "view=summary")
+    public ResponseEntity<List<ActionSummaryDTO>> getSummariesForUser(Authentication authentication) {
+        List<ActionSummaryDTO> summaries = service.getSummariesByUser(authentication);
+        return new ResponseEntity<>(summaries, HttpStatus.OK);
     }
      
 
@@ -126,14 +194,15 @@ public class ActionController {
     }
 
     // Méthode pour gérer les requêtes PUT vers /api/action/{id} : mise à jour d’une
-    // action existante
+    // action existante (conditionnelle si If-Match est fourni : 409 + état actuel si périmé)
     @PutMapping("/{id}")
     public ResponseEntity<ActionDTO> update(@PathVariable Long id, @RequestBody ActionDTO dto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             Authentication authentication, HttpServletRequest request) {
 
         // Appel du service pour mettre à jour l’action identifiée par l’id avec les
         // nouvelles données
-        ActionDTO updated = service.update(id, dto, authentication);
+        ActionDTO updated = service.update(id, dto, ETags.parseIfMatch(ifMatch), authentication);
 
         // Logging de l'action créée dans MangoDB
         try {
@@ -142,8 +211,24 @@ public class ActionController {
             System.err.println("⚠️ Impossible d'enregistrer le log MongoDB : " + e.getMessage());
         }
 
-        // Renvoi de l’action mise à jour avec un statut HTTP 200 OK
-        return new ResponseEntity<>(updated, HttpStatus.OK);
+        // Renvoi de l’action mise à jour (et de sa nouvelle version) avec un statut HTTP 200 OK
+        return ResponseEntity.ok().eTag(ETags.of(updated.getVersion())).body(updated);
+    }
+
+    // Méthode pour gérer les requêtes PATCH vers /api/action/{id} : modification
+    // partielle (JSON Merge Patch), seuls les champs envoyés sont modifiés
+    // ex : {"completed": true} ou {"memberIds": [1, 3], "dueDate": null}
+    // Conditionnelle si If-Match est fourni (409 + état actuel si la version est périmée)
+    @PatchMapping(value = "/{id}", consumes = { "application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<ActionDTO> patch(@PathVariable Long id, @RequestBody Map<String, Object> changes,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            Authentication authentication, HttpServletRequest request) {
+        ActionDTO updated = service.patch(id, changes, ETags.parseIfMatch(ifMatch), authentication);
+
+        // Logging de l'action modifiée dans MongoDB (écriture asynchrone, ne lève pas d'exception)
+        logDocumentService.addLog("Action updated", request, updated);
+
+        return ResponseEntity.ok().eTag(ETags.of(updated.getVersion())).body(updated);
     }
 
     // Méthode pour gérer les requêtes DELETE vers /api/action/{id} : suppression d’une action
@@ -169,6 +254,20 @@ public class ActionController {
      * }
      */
 
+    // Méthode pour gérer les requêtes POST vers /api/action/batch : plusieurs
+    // créations / mises à jour / suppressions en une seule requête et une seule transaction.
+    // Renvoie un résultat par opération (statut 201, 200, 204, 400 ou 404) dans l'ordre reçu.
+    @PostMapping("/batch")
+    public ResponseEntity<List<ActionBatchResultDTO>> batch(@RequestBody List<ActionBatchOperationDTO> operations,
+            Authentication authentication, HttpServletRequest request) {
+        List<ActionBatchResultDTO> results = service.batch(operations, authentication);
+
+        // Logging groupé des opérations réussies dans MongoDB (écriture asynchrone, ne lève pas d'exception)
+        logDocumentService.addBatchLogs(request, results);
+
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+
     // Récupère toutes les tâches où l’utilisateur connecté a été assigné
     @GetMapping("/assigned-to-me")
     public ResponseEntity<List<ActionDTO>> getAssignedToMe(Authentication authentication) {
@@ -176,4 +275,39 @@ public class ActionController {
         return new ResponseEntity<>(tasks, HttpStatus.OK);
     }
 
-}
\ No newline at end of file
+    // Variante légère : GET /api/action/assigned-to-me?view=summary
+    @GetMapping(value = "/assigned-to-me", params = "view=summary")
+    public ResponseEntity<List<ActionSummaryDTO>> getAssignedToMeSummaries(Authentication authentication) {
+        List<ActionSummaryDTO> tasks = service.getAssignedToMeSummaries(authentication);
+        return new ResponseEntity<>(tasks, HttpStatus.OK);
+    }
+
+    // Récupère une page des actions de l'utilisateur connecté (pagination par curseur)
+    // Filtres optionnels : completed, priorite, projetId, dueFrom, dueTo (yyyy-MM-dd)
+    @GetMapping("/page")
+    public ResponseEntity<ActionPageDTO> getPageForUser(ActionFilterDTO filter,
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit,
+            Authentication authentication) {
+        ActionPageDTO page = service.getPageByUser(authentication, filter, cursor, limit);
+        return new ResponseEntity<>(page, HttpStatus.OK);
+    }
+
+    // Recherche plein texte dans mes tâches et celles qui me sont assignées, par pertinence
+    // GET /api/action/search?q=réunion budget[&cursor=...][&limit=20]
+    @GetMapping("/search")
+    public ResponseEntity<ActionPageDTO> search(@RequestParam String q,
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit,
+            Authentication authentication) {
+        return new ResponseEntity<>(service.search(q, cursor, limit, authentication), HttpStatus.OK);
+    }
+
+    // Récupère une page des tâches où l’utilisateur connecté a été assigné
+    @GetMapping("/assigned-to-me/page")
+    public ResponseEntity<ActionPageDTO> getAssignedToMePage(ActionFilterDTO filter,
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit,
+            Authentication authentication) {
+        ActionPageDTO page = service.getAssignedToMePage(authentication, filter, cursor, limit);
+        return new ResponseEntity<>(page, HttpStatus.OK);
+    }
+
+}
@@ -1,14 +1,15 @@
 // Contrôleur REST qui gère l’authentification et l’inscription des utilisateurs.
 // Fonctionnalités :
 // - Authentifier un utilisateur avec ses identifiants (POST /auth/login)
-//   → Vérifie les identifiants via Spring Security
+//   → Vérifie les identifiants via Spring Security (une seule fois, sur le pool de login d'AuthService)
 //   → Extrait le rôle de l’utilisateur
 //   → Génère un token JWT et le retourne avec le rôle
+//   → 503 + Retry-After si trop de connexions sont déjà en cours
 // - Inscrire un nouvel utilisateur (POST /auth/register)
 //   → Délègue la création de l’utilisateur à UserService
 //   → Retourne un message de confirmation
-// Utilise AuthService pour la logique JWT, UserService pour la gestion des utilisateurs,
-// et AuthenticationManager de Spring Security pour valider les identifiants.
+// Utilise AuthService pour la validation des identifiants et la logique JWT,
+// UserService pour la gestion des utilisateurs.
 
 
 
@@ -16,13 +17,13 @@
 package com.descodeuses.planit.controller;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -35,8 +36,6 @@ import com.descodeuses.planit.service.AuthService;
 import com.descodeuses.planit.service.LogDocumentService;
 import com.descodeuses.planit.service.UserService;
 
-import jakarta.servlet.http.HttpServletRequest;
-
 // Indique que cette classe est un contrôleur REST (retourne du JSON)
 @RestController
 // Toutes les routes de ce contrôleur commenceront par /auth
@@ -55,28 +54,21 @@ public class AuthController {
         this.userService = userService;
     }
 
-    // Gestionnaire d’authentification de Spring Security (injecté automatiquement)
-    @Autowired
-    private AuthenticationManager authenticationManager;
-
     // Endpoint POST /auth/login → authentification de l’utilisateur
+    // Traité sur le pool de login (voir AuthService) : le thread de la requête est libéré pendant BCrypt
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@RequestBody AuthRequest request, HttpServletRequest httpRequest) {
-        // Étape 1 : Authentifier l’utilisateur avec Spring Security
-        Authentication auth = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword()));
-
-        // Étape 2 : Extraire le rôle (ici, on prend le premier rôle trouvé)
-        String role = auth.getAuthorities()                // retourne une Collection<GrantedAuthority>
-                .stream()                                  // transforme en flux
-                .map(GrantedAuthority::getAuthority)       // récupère la valeur du rôle
-                .findFirst().orElse("");                   // si aucun rôle, retourne ""
-
-        // Étape 3 : Générer le JWT via le service d’authentification
-        String jwt = authService.login(request.getUsername(), request.getPassword());
+    public CompletableFuture<ResponseEntity<AuthResponse>> login(@RequestBody AuthRequest request) {
+        // Vérifie les identifiants, puis retourne le token JWT et le rôle de l’utilisateur
+        return authService.login(request.getUsername(), request.getPassword())
+                .thenApply(ResponseEntity::ok);
+    }
 
-        // Étape 4 : Retourner le token JWT et le rôle de l’utilisateur dans la réponse
-        return ResponseEntity.ok(new AuthResponse(jwt, role));
+    // Pool de login saturé : refus immédiat plutôt qu'une attente sans fin, le client réessaie
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Map<String, String>> loginOverloaded() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("message", "Trop de connexions en cours, réessayez dans un instant"));
     }
 
     // Endpoint POST /auth/register → inscription d’un nouvel utilisateur
@@ -2,6 +2,7 @@ package com.descodeuses.planit.controller;
 
 import java.util.List;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -11,32 +12,38 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.descodeuses.planit.dto.ContactDTO;
 import com.descodeuses.planit.service.ContactService;
+import com.descodeuses.planit.service.WatermarkService;
 
 @RestController 
 @RequestMapping("api/contact") 
 public class ContactController {
 
     private final ContactService service;
+    private final WatermarkService watermarks;
 
-    public ContactController(ContactService service) {
+    public ContactController(ContactService service, WatermarkService watermarks) {
         this.service = service;
+        this.watermarks = watermarks;
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<ContactDTO> getById(@PathVariable Long id, Authentication authentication) {
         ContactDTO contactDTO = service.getById(id, authentication);
-        return new ResponseEntity<>(contactDTO, HttpStatus.OK);
+        return ResponseEntity.ok().eTag(ETags.of(contactDTO.getVersion())).body(contactDTO);
     }
 
+    // ETag = compteur de modifications de l'utilisateur : 304 sans rien charger si inchangé
     @GetMapping
-    public ResponseEntity<List<ContactDTO>> getAll(Authentication authentication) {
-        List<ContactDTO> items = service.getAllByUser(authentication);
-        return new ResponseEntity<>(items, HttpStatus.OK);
+    public ResponseEntity<List<ContactDTO>> getAll(Authentication authentication, WebRequest request) {
+        String etag = ETags.of("contact", watermarks.current(authentication));
+        return ETags.conditional(request, etag, () -> service.getAllByUser(authentication));
     }
 
     @PostMapping
@@ -45,10 +52,13 @@ public class ContactController {
         return new ResponseEntity<>(created, HttpStatus.CREATED);
     }
 
+    // Mise à jour, conditionnelle si If-Match est fourni (409 + état actuel si la version est périmée)
     @PutMapping("/{id}")
-    public ResponseEntity<ContactDTO> update(@PathVariable Long id, @RequestBody ContactDTO dto, Authentication authentication) {
-        ContactDTO updated = service.update(id, dto, authentication);
-        return new ResponseEntity<>(updated, HttpStatus.OK);
+    public ResponseEntity<ContactDTO> update(@PathVariable Long id, @RequestBody ContactDTO dto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            Authentication authentication) {
+        ContactDTO updated = service.update(id, dto, ETags.parseIfMatch(ifMatch), authentication);
+        return ResponseEntity.ok().eTag(ETags.of(updated.getVersion())).body(updated);
     }
 
     @DeleteMapping("/{id}")
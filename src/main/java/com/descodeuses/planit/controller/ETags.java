@@ -0,0 +1,57 @@
+package com.descodeuses.planit.controller;
+
+import java.util.function.Supplier;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import com.descodeuses.planit.exception.BadRequestException;
+import com.descodeuses.planit.service.WatermarkService.Watermark;
+
+// Conversion entre la version d'une entité et les en-têtes ETag / If-Match ("3", W/"3"),
+// et réponses conditionnelles (If-None-Match) des listes
+public final class ETags {
+
+    // Le navigateur peut garder la liste mais doit la revalider à chaque fois
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private ETags() {
+    }
+
+    public static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    // ETag fort d'une liste : nom de la liste, utilisateur et son compteur de modifications
+    // (pas de hachage du contenu, rien à sérialiser pour le calculer)
+    public static String of(String liste, Watermark watermark) {
+        return "\"" + liste + "-" + watermark.userId() + "-" + watermark.version() + "\"";
+    }
+
+    // GET conditionnel d'une liste : 304 sans charger la liste si If-None-Match correspond,
+    // sinon 200 avec la liste (chargée seulement à ce moment-là) et son ETag
+    public static <T> ResponseEntity<T> conditional(WebRequest request, String etag, Supplier<T> body) {
+        if (request.checkNotModified(etag)) {
+            return null; // statut 304 et ETag déjà positionnés par checkNotModified
+        }
+        return ResponseEntity.ok().cacheControl(REVALIDATE).eTag(etag).body(body.get());
+    }
+
+    // Version attendue d'après If-Match (null si absent ou "*" : écriture inconditionnelle)
+    public static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        value = value.replace("\"", "");
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("En-tête If-Match invalide : " + ifMatch);
+        }
+    }
+}
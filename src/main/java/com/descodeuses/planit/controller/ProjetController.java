@@ -2,6 +2,7 @@ package com.descodeuses.planit.controller;
 
 import java.util.List;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -11,12 +12,15 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 
 import com.descodeuses.planit.dto.ProjetDTO;
 import com.descodeuses.planit.service.ProjetService;
+import com.descodeuses.planit.service.WatermarkService;
 
 @RestController
 @RequestMapping("/api/projet")
@@ -25,21 +29,24 @@ import com.descodeuses.planit.service.ProjetService;
 public class ProjetController {
 
     private final ProjetService service;
+    private final WatermarkService watermarks;
 
-    public ProjetController(ProjetService service) {
+    public ProjetController(ProjetService service, WatermarkService watermarks) {
         this.service = service;
+        this.watermarks = watermarks;
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<ProjetDTO> getById(@PathVariable Long id, Authentication authentication) {
         ProjetDTO projetDTO = service.getById(id, authentication);
-        return new ResponseEntity<>(projetDTO, HttpStatus.OK);
+        return ResponseEntity.ok().eTag(ETags.of(projetDTO.getVersion())).body(projetDTO);
     }
 
+    // ETag = compteur de modifications de l'utilisateur : 304 sans rien charger si inchangé
     @GetMapping
-    public ResponseEntity<List<ProjetDTO>> getAll(Authentication authentication) {
-        List<ProjetDTO> items = service.getAllByUser(authentication);
-        return new ResponseEntity<>(items, HttpStatus.OK);
+    public ResponseEntity<List<ProjetDTO>> getAll(Authentication authentication, WebRequest request) {
+        String etag = ETags.of("projet", watermarks.current(authentication));
+        return ETags.conditional(request, etag, () -> service.getAllByUser(authentication));
     }
 
     @PostMapping
@@ -48,10 +55,13 @@ public class ProjetController {
         return new ResponseEntity<>(created, HttpStatus.CREATED);
     }
 
+    // Mise à jour, conditionnelle si If-Match est fourni (409 + état actuel si la version est périmée)
     @PutMapping("/{id}")
-    public ResponseEntity<ProjetDTO> update(@PathVariable Long id, @RequestBody ProjetDTO dto, Authentication authentication) {
-        ProjetDTO updated = service.update(id, dto, authentication);
-        return new ResponseEntity<>(updated, HttpStatus.OK);
+    public ResponseEntity<ProjetDTO> update(@PathVariable Long id, @RequestBody ProjetDTO dto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            Authentication authentication) {
+        ProjetDTO updated = service.update(id, dto, ETags.parseIfMatch(ifMatch), authentication);
+        return ResponseEntity.ok().eTag(ETags.of(updated.getVersion())).body(updated);
     }
 
     @DeleteMapping("/{id}")
@@ -61,7 +71,8 @@ public class ProjetController {
     }
 
     @GetMapping("/my")
-    public ResponseEntity<List<ProjetDTO>> getMyProjects(Authentication authentication) {
-        return ResponseEntity.ok(service.getMyProjects(authentication));
+    public ResponseEntity<List<ProjetDTO>> getMyProjects(Authentication authentication, WebRequest request) {
+        String etag = ETags.of("projet-my", watermarks.current(authentication));
+        return ETags.conditional(request, etag, () -> service.getMyProjects(authentication));
     }
 }
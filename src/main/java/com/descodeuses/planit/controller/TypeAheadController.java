@@ -0,0 +1,37 @@
+package com.descodeuses.planit.controller;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.descodeuses.planit.dto.TypeAheadDTO;
+import com.descodeuses.planit.service.CurrentUserResolver;
+import com.descodeuses.planit.service.TypeAheadService;
+
+// Saisie semi-automatique : GET /api/typeahead?q=rap&limit=10
+// Tâches, projets et contacts de l'utilisateur dont un mot commence par la saisie (index en mémoire, sans requête SQL)
+@RestController
+@RequestMapping("/api/typeahead")
+public class TypeAheadController {
+
+    private final TypeAheadService service;
+    private final CurrentUserResolver currentUser;
+
+    public TypeAheadController(TypeAheadService service, CurrentUserResolver currentUser) {
+        this.service = service;
+        this.currentUser = currentUser;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<TypeAheadDTO>> suggest(@RequestParam("q") String query,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            Authentication authentication) {
+        Long userId = currentUser.resolve(authentication).getId();
+        return ResponseEntity.ok(service.suggest(userId, query, limit));
+    }
+}
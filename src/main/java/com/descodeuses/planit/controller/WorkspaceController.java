@@ -0,0 +1,29 @@
+package com.descodeuses.planit.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.descodeuses.planit.dto.WorkspaceDTO;
+import com.descodeuses.planit.service.WorkspaceService;
+
+// Accueil de l'application : projets, tâches, tâches assignées et contacts en un seul appel
+// (les quatre lectures sont faites en parallèle, voir WorkspaceService)
+@RestController
+@RequestMapping("/api/workspace")
+public class WorkspaceController {
+
+    private final WorkspaceService service;
+
+    public WorkspaceController(WorkspaceService service) {
+        this.service = service;
+    }
+
+    // Pas d'ETag ici : le compteur de l'utilisateur ne suit pas les tâches où il est seulement assigné
+    @GetMapping
+    public ResponseEntity<WorkspaceDTO> get(Authentication authentication) {
+        return ResponseEntity.ok(service.get(authentication));
+    }
+}
@@ -0,0 +1,61 @@
+package com.descodeuses.planit.dto;
+
+import java.util.Map;
+
+// Opération d'un lot POST /api/action/batch
+// - op = "create" : action obligatoire
+// - op = "update" : id + action (remplacement complet, comme PUT /api/action/{id})
+// - op = "patch"  : id + changes (modification partielle, comme PATCH /api/action/{id})
+// - op = "delete" : id
+// version (optionnel, update / patch / delete) : même rôle que If-Match, 409 si la tâche a changé
+public class ActionBatchOperationDTO {
+
+    private String op;
+    private Long id;
+    private Long version;
+    private ActionDTO action;
+    private Map<String, Object> changes;
+
+    public ActionBatchOperationDTO() {
+    }
+
+    public String getOp() {
+        return op;
+    }
+
+    public void setOp(String op) {
+        this.op = op;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public ActionDTO getAction() {
+        return action;
+    }
+
+    public void setAction(ActionDTO action) {
+        this.action = action;
+    }
+
+    public Map<String, Object> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(Map<String, Object> changes) {
+        this.changes = changes;
+    }
+}
@@ -0,0 +1,71 @@
+package com.descodeuses.planit.dto;
+
+// Résultat d'une opération d'un lot, dans l'ordre de la requête
+// status suit les codes HTTP de l'opération unitaire équivalente (201, 200, 204, 400, 404, 409)
+// En cas de conflit de version (409), action contient l'état actuel de la tâche
+public class ActionBatchResultDTO {
+
+    private int index;
+    private String op;
+    private Long id;
+    private int status;
+    private String error;
+    private ActionDTO action;
+
+    public ActionBatchResultDTO(int index, String op, Long id, int status, String error, ActionDTO action) {
+        this.index = index;
+        this.op = op;
+        this.id = id;
+        this.status = status;
+        this.error = error;
+        this.action = action;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getOp() {
+        return op;
+    }
+
+    public void setOp(String op) {
+        this.op = op;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public ActionDTO getAction() {
+        return action;
+    }
+
+    public void setAction(ActionDTO action) {
+        this.action = action;
+    }
+}
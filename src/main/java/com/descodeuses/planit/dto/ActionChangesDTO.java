@@ -0,0 +1,54 @@
+package com.descodeuses.planit.dto;
+
+import java.util.List;
+
+// Réponse de GET /api/action/changes?since=
+// - token : à renvoyer en "since" au prochain appel
+// - reset : true si "updated" est la liste complète (le client remplace son cache)
+// - updated : tâches créées ou modifiées, deleted : ids des tâches supprimées
+public class ActionChangesDTO {
+
+    private Long token;
+    private boolean reset;
+    private List<ActionDTO> updated;
+    private List<Long> deleted;
+
+    public ActionChangesDTO(Long token, boolean reset, List<ActionDTO> updated, List<Long> deleted) {
+        this.token = token;
+        this.reset = reset;
+        this.updated = updated;
+        this.deleted = deleted;
+    }
+
+    public Long getToken() {
+        return token;
+    }
+
+    public void setToken(Long token) {
+        this.token = token;
+    }
+
+    public boolean isReset() {
+        return reset;
+    }
+
+    public void setReset(boolean reset) {
+        this.reset = reset;
+    }
+
+    public List<ActionDTO> getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(List<ActionDTO> updated) {
+        this.updated = updated;
+    }
+
+    public List<Long> getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(List<Long> deleted) {
+        this.deleted = deleted;
+    }
+}
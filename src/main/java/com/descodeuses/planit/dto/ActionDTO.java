@@ -1,11 +1,16 @@
 package com.descodeuses.planit.dto;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.Set;
 
 public class ActionDTO {
 
     private Long id;
+    // Version de l'entité (même valeur que l'ETag)
+    private Long version;
+    // Date de dernière modification (lecture seule)
+    private Instant updatedAt;
     private String title;
     private boolean completed;
     private LocalDate dueDate;
@@ -46,6 +51,22 @@ public class ActionDTO {
 
     // Getters et Setters
 
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Long getId() {
         return id;
     }
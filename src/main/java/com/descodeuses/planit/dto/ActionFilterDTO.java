@@ -0,0 +1,60 @@
+package com.descodeuses.planit.dto;
+
+import java.time.LocalDate;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+// Filtres optionnels des listes paginées de tâches (paramètres de requête GET)
+// Un champ null signifie "pas de filtre" sur ce critère
+public class ActionFilterDTO {
+
+    private Boolean completed;
+    private Integer priorite;
+    private Long projetId;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dueFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dueTo;
+
+    public Boolean getCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(Boolean completed) {
+        this.completed = completed;
+    }
+
+    public Integer getPriorite() {
+        return priorite;
+    }
+
+    public void setPriorite(Integer priorite) {
+        this.priorite = priorite;
+    }
+
+    public Long getProjetId() {
+        return projetId;
+    }
+
+    public void setProjetId(Long projetId) {
+        this.projetId = projetId;
+    }
+
+    public LocalDate getDueFrom() {
+        return dueFrom;
+    }
+
+    public void setDueFrom(LocalDate dueFrom) {
+        this.dueFrom = dueFrom;
+    }
+
+    public LocalDate getDueTo() {
+        return dueTo;
+    }
+
+    public void setDueTo(LocalDate dueTo) {
+        this.dueTo = dueTo;
+    }
+}
@@ -0,0 +1,32 @@
+package com.descodeuses.planit.dto;
+
+import java.util.List;
+
+// Page de tâches renvoyée par les listes paginées
+// nextCursor est à renvoyer tel quel pour obtenir la page suivante (null = dernière page)
+public class ActionPageDTO {
+
+    private List<ActionDTO> items;
+    private String nextCursor;
+
+    public ActionPageDTO(List<ActionDTO> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ActionDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<ActionDTO> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
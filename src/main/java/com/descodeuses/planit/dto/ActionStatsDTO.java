@@ -0,0 +1,120 @@
+package com.descodeuses.planit.dto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Réponse de GET /api/action/stats : compteurs du tableau de bord de l'utilisateur connecté
+// - totals : toutes ses tâches ; byProjet / byPriorite : mêmes compteurs par projet et par priorité
+//   (projetId / priorite null = sans projet / sans priorité)
+// - openByEcheance : tâches non terminées par échéance (overdue, today, week = 7 prochains jours, later, none)
+public class ActionStatsDTO {
+
+    private Counts totals = new Counts();
+    private List<ProjetCounts> byProjet = new ArrayList<>();
+    private List<PrioriteCounts> byPriorite = new ArrayList<>();
+    private Map<String, Long> openByEcheance = new LinkedHashMap<>();
+
+    public Counts getTotals() {
+        return totals;
+    }
+
+    public void setTotals(Counts totals) {
+        this.totals = totals;
+    }
+
+    public List<ProjetCounts> getByProjet() {
+        return byProjet;
+    }
+
+    public void setByProjet(List<ProjetCounts> byProjet) {
+        this.byProjet = byProjet;
+    }
+
+    public List<PrioriteCounts> getByPriorite() {
+        return byPriorite;
+    }
+
+    public void setByPriorite(List<PrioriteCounts> byPriorite) {
+        this.byPriorite = byPriorite;
+    }
+
+    public Map<String, Long> getOpenByEcheance() {
+        return openByEcheance;
+    }
+
+    public void setOpenByEcheance(Map<String, Long> openByEcheance) {
+        this.openByEcheance = openByEcheance;
+    }
+
+    // Nombre de tâches : total, non terminées, terminées, en retard (non terminées et échéance passée)
+    public static class Counts {
+
+        private long total;
+        private long open;
+        private long completed;
+        private long overdue;
+
+        // Ajoute "count" tâches terminées ou non, en retard ou non
+        public void add(long count, boolean isCompleted, boolean isOverdue) {
+            total += count;
+            if (isCompleted) {
+                completed += count;
+            } else {
+                open += count;
+                if (isOverdue) {
+                    overdue += count;
+                }
+            }
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public long getOpen() {
+            return open;
+        }
+
+        public long getCompleted() {
+            return completed;
+        }
+
+        public long getOverdue() {
+            return overdue;
+        }
+    }
+
+    public static class ProjetCounts extends Counts {
+
+        private final Long projetId;
+        private final String title;
+
+        public ProjetCounts(Long projetId, String title) {
+            this.projetId = projetId;
+            this.title = title;
+        }
+
+        public Long getProjetId() {
+            return projetId;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+    }
+
+    public static class PrioriteCounts extends Counts {
+
+        private final Integer priorite;
+
+        public PrioriteCounts(Integer priorite) {
+            this.priorite = priorite;
+        }
+
+        public Integer getPriorite() {
+            return priorite;
+        }
+    }
+}
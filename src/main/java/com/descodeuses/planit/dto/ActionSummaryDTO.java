@@ -0,0 +1,73 @@
+package com.descodeuses.planit.dto;
+
+import java.time.LocalDate;
+
+// Version allégée d'une tâche pour les listes (GET ...?view=summary)
+// Construite directement par la requête JPQL (select new ...), sans charger d'ActionEntity
+public class ActionSummaryDTO {
+
+    private Long id;
+    private String title;
+    private boolean completed;
+    private LocalDate dueDate;
+    private Integer priorite;
+    private Long projetId;
+
+    public ActionSummaryDTO(Long id, String title, boolean completed, LocalDate dueDate, Integer priorite,
+            Long projetId) {
+        this.id = id;
+        this.title = title;
+        this.completed = completed;
+        this.dueDate = dueDate;
+        this.priorite = priorite;
+        this.projetId = projetId;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public boolean getCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(boolean completed) {
+        this.completed = completed;
+    }
+
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    public void setDueDate(LocalDate dueDate) {
+        this.dueDate = dueDate;
+    }
+
+    public Integer getPriorite() {
+        return priorite;
+    }
+
+    public void setPriorite(Integer priorite) {
+        this.priorite = priorite;
+    }
+
+    public Long getProjetId() {
+        return projetId;
+    }
+
+    public void setProjetId(Long projetId) {
+        this.projetId = projetId;
+    }
+}
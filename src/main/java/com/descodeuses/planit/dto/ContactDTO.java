@@ -3,6 +3,8 @@ package com.descodeuses.planit.dto;
 public class ContactDTO {
 
     private Long id;
+    // Version de l'entité (même valeur que l'ETag)
+    private Long version;
     private String nom;
     private String prenom;
     private String email;
@@ -16,6 +18,14 @@ public class ContactDTO {
         this.tel = tel;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Long getId() {
         return id;
     }
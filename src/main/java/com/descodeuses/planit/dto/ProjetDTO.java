@@ -4,6 +4,8 @@ public class ProjetDTO {
 
 
     private Long id;
+    // Version de l'entité (même valeur que l'ETag)
+    private Long version;
     private String title;
     private String description;
 
@@ -15,6 +17,14 @@ public class ProjetDTO {
     }
 
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Long getId() {
         return id;
     }
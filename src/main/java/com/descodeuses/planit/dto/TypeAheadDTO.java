@@ -0,0 +1,63 @@
+package com.descodeuses.planit.dto;
+
+// Suggestion de la saisie semi-automatique (GET /api/typeahead?q=)
+// - type : "action", "projet" ou "contact" ; id : identifiant dans ce type
+// - label : texte affiché (titre, ou prénom nom du contact) ; detail : email du contact
+// - version : version de l'entité indexée (les mises à jour plus anciennes sont ignorées)
+// Construit directement par les requêtes JPQL d'indexation (select new ...)
+public class TypeAheadDTO {
+
+    private String type;
+    private Long id;
+    private String label;
+    private String detail;
+    private Long version;
+
+    public TypeAheadDTO(String type, Long id, String label, String detail, Long version) {
+        this.type = type;
+        this.id = id;
+        this.label = label;
+        this.detail = detail;
+        this.version = version;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public void setLabel(String label) {
+        this.label = label;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    public void setDetail(String detail) {
+        this.detail = detail;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
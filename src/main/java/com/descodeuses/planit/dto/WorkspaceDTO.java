@@ -0,0 +1,55 @@
+package com.descodeuses.planit.dto;
+
+import java.util.List;
+
+// Réponse de GET /api/workspace : tout ce qu'affiche l'accueil en un seul appel
+// - projets : projets dont l'utilisateur est propriétaire ou membre
+// - actions : ses tâches, assignedActions : tâches où il est assigné
+// - contacts : ses contacts
+public class WorkspaceDTO {
+
+    private List<ProjetDTO> projets;
+    private List<ActionDTO> actions;
+    private List<ActionDTO> assignedActions;
+    private List<ContactDTO> contacts;
+
+    public WorkspaceDTO(List<ProjetDTO> projets, List<ActionDTO> actions, List<ActionDTO> assignedActions,
+            List<ContactDTO> contacts) {
+        this.projets = projets;
+        this.actions = actions;
+        this.assignedActions = assignedActions;
+        this.contacts = contacts;
+    }
+
+    public List<ProjetDTO> getProjets() {
+        return projets;
+    }
+
+    public void setProjets(List<ProjetDTO> projets) {
+        this.projets = projets;
+    }
+
+    public List<ActionDTO> getActions() {
+        return actions;
+    }
+
+    public void setActions(List<ActionDTO> actions) {
+        this.actions = actions;
+    }
+
+    public List<ActionDTO> getAssignedActions() {
+        return assignedActions;
+    }
+
+    public void setAssignedActions(List<ActionDTO> assignedActions) {
+        this.assignedActions = assignedActions;
+    }
+
+    public List<ContactDTO> getContacts() {
+        return contacts;
+    }
+
+    public void setContacts(List<ContactDTO> contacts) {
+        this.contacts = contacts;
+    }
+}
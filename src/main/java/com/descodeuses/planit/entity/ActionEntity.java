@@ -1,38 +1,70 @@
 // Déclaration du package dans lequel se trouve la classe
 package com.descodeuses.planit.entity;
 
+import java.time.Instant;
 // Importation de la classe LocalDate pour gérer les dates sans heure
 import java.time.LocalDate;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.UpdateTimestamp;
+
 // Importation des annotations JPA pour la persistance des données
 import jakarta.persistence.Column; // Permet de configurer les colonnes d'une table
 import jakarta.persistence.Entity; // Indique que cette classe est une entité JPA (liée à une table de BDD)
 import jakarta.persistence.GeneratedValue; // Permet de générer automatiquement la valeur de l'identifiant
 import jakarta.persistence.GenerationType; // Définit le type de stratégie de génération d'ID
 import jakarta.persistence.Id; // Indique le champ clé primaire (identifiant unique)
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table; // Permet de donner un nom spécifique à la table en base de données
+import jakarta.persistence.Version; // Colonne de version pour le verrouillage optimiste
 
 // Annotation JPA : cette classe sera une entité (une table)
 @Entity
 
+// Les UPDATE ne contiennent que les colonnes réellement modifiées
+@DynamicUpdate
+
 // Annotation JPA : le nom de la table sera "todo" dans la base de données
-@Table(name = "todo") // table créée à travers la classe Action
+// Index composite utilisé par la pagination par curseur (utilisateur, échéance, id)
+// et index (utilisateur, numéro de modification) pour la synchronisation différentielle
+@Table(name = "todo", indexes = {
+        @Index(name = "idx_todo_utilisateur_due_date_id", columnList = "utilisateur_id, due_date, id"),
+        @Index(name = "idx_todo_utilisateur_change_seq", columnList = "utilisateur_id, change_seq") }) // table créée à travers la classe Action
 
 public class ActionEntity {
 
     // Clé primaire (ID) de l'entité
     @Id
-    // Génération automatique de l'ID selon la stratégie "IDENTITY" (auto-incrément
-    // en BDD)
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // ID issu de la séquence todo_seq, réservé par blocs de 50 : contrairement à
+    // IDENTITY, Hibernate connaît l'ID avant l'INSERT et peut regrouper les insertions
+    // en lots JDBC (voir SequenceAligner pour les bases créées avec IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "todo_seq")
+    @SequenceGenerator(name = "todo_seq", sequenceName = "todo_seq", allocationSize = 50)
     private Long id;
 
+    // Version pour le verrouillage optimiste : incrémentée à chaque écriture,
+    // exposée en ETag et comparée à If-Match avant une modification
+    @Version
+    @Column(columnDefinition = "bigint default 0 not null")
+    private Long version;
+
+    // Date de dernière modification (renseignée par Hibernate à l'insertion et à chaque UPDATE)
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    // Valeur du compteur de modifications du propriétaire lors de la dernière écriture :
+    // GET /api/action/changes?since=N renvoie les tâches dont changeSeq > N
+    @Column(name = "change_seq", columnDefinition = "bigint default 0 not null")
+    private long changeSeq;
+
     // Colonne "title" ne peut pas être null (obligatoire)
     @Column(nullable = false)
 
@@ -82,6 +114,30 @@ public class ActionEntity {
     private Integer priorite;
 
     // Getter pour l'ID (obligatoire pour accéder à la valeur du champ privé)
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public void setChangeSeq(long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Long getId() {
         return id;
     }
@@ -159,7 +215,8 @@ public class ActionEntity {
 
     // Utilisateurs assignés à la tâche
     @ManyToMany
-    @JoinTable(name = "todo_utilisateur_assigne", joinColumns = @JoinColumn(name = "todo_id"), inverseJoinColumns = @JoinColumn(name = "utilisateur_id"))
+    // Index sur utilisateur_id pour retrouver les tâches assignées à un utilisateur
+    @JoinTable(name = "todo_utilisateur_assigne", joinColumns = @JoinColumn(name = "todo_id"), inverseJoinColumns = @JoinColumn(name = "utilisateur_id"), indexes = @Index(name = "idx_todo_assigne_utilisateur", columnList = "utilisateur_id"))
     private Set<UtilisateurEntity> utilisateursAssignes = new HashSet<>();
 
     public Set<UtilisateurEntity> getUtilisateursAssignes() {
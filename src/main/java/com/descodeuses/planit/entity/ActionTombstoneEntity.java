@@ -0,0 +1,89 @@
+package com.descodeuses.planit.entity;
+
+import java.time.Instant;
+
+import org.springframework.data.domain.Persistable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+// Trace d'une tâche supprimée, pour que GET /api/action/changes puisse signaler la
+// suppression aux clients déjà synchronisés. Purgée après la durée de rétention.
+@Entity
+@Table(name = "todo_tombstone", indexes = {
+        @Index(name = "idx_todo_tombstone_utilisateur_change_seq", columnList = "utilisateur_id, change_seq"),
+        @Index(name = "idx_todo_tombstone_deleted_at", columnList = "deleted_at") })
+public class ActionTombstoneEntity implements Persistable<Long> {
+
+    // Id de la tâche supprimée (les ids issus de todo_seq ne sont jamais réutilisés)
+    @Id
+    @Column(name = "todo_id")
+    private Long actionId;
+
+    // Propriétaire de la tâche (simple colonne : pas de clé étrangère vers utilisateur)
+    @Column(name = "utilisateur_id", nullable = false)
+    private Long utilisateurId;
+
+    // Numéro de modification du propriétaire au moment de la suppression
+    @Column(name = "change_seq", nullable = false)
+    private long changeSeq;
+
+    @Column(name = "deleted_at", nullable = false)
+    private Instant deletedAt;
+
+    public ActionTombstoneEntity() {
+    }
+
+    public ActionTombstoneEntity(Long actionId, Long utilisateurId, long changeSeq, Instant deletedAt) {
+        this.actionId = actionId;
+        this.utilisateurId = utilisateurId;
+        this.changeSeq = changeSeq;
+        this.deletedAt = deletedAt;
+    }
+
+    // Id attribué par l'application : toujours une insertion (save() sans SELECT préalable)
+    @Override
+    public Long getId() {
+        return actionId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+
+    public Long getActionId() {
+        return actionId;
+    }
+
+    public void setActionId(Long actionId) {
+        this.actionId = actionId;
+    }
+
+    public Long getUtilisateurId() {
+        return utilisateurId;
+    }
+
+    public void setUtilisateurId(Long utilisateurId) {
+        this.utilisateurId = utilisateurId;
+    }
+
+    public long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public void setChangeSeq(long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+
+    public Instant getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(Instant deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+}
@@ -3,6 +3,11 @@ package com.descodeuses.planit.entity;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -12,17 +17,30 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 @Entity
+@DynamicUpdate
 @Table(name = "projet")
+// Cache de second niveau : relu à chaque tâche affichée (voir hibernate-cache.conf)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "projet")
 
 public class ProjetEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "projet_seq")
+    @SequenceGenerator(name = "projet_seq", sequenceName = "projet_seq", allocationSize = 50)
     private Long id;
 
+    // Version pour le verrouillage optimiste : incrémentée à chaque écriture,
+    // exposée en ETag et comparée à If-Match avant une modification
+    @Version
+    @Column(columnDefinition = "bigint default 0 not null")
+    private Long version;
+
     @Column(nullable = true)
     private String title;
     private String description;
@@ -32,8 +50,10 @@ public class ProjetEntity {
     @JoinColumn(name = "utilisateur_id")
     private UtilisateurEntity utilisateur;
 
-    // Membres assignés au projet
+    // Membres assignés au projet (ids en cache ; toute modification doit passer par cette collection
+    // pour que l'entrée soit invalidée, pas par une requête SQL sur projet_membres)
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "projet-membres")
     @JoinTable(name = "projet_membres", joinColumns = @JoinColumn(name = "projet_id"), inverseJoinColumns = @JoinColumn(name = "utilisateur_id"))
     private Set<UtilisateurEntity> membres = new HashSet<>();
 
@@ -48,6 +68,14 @@ public class ProjetEntity {
         this.description = description;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Long getId() {
         return id;
     }
@@ -79,4 +107,12 @@ public class ProjetEntity {
     public void setUtilisateur(UtilisateurEntity utilisateur) {
         this.utilisateur = utilisateur;
     }
+
+    public Set<UtilisateurEntity> getMembres() {
+        return membres;
+    }
+
+    public void setMembres(Set<UtilisateurEntity> membres) {
+        this.membres = membres;
+    }
 }
@@ -0,0 +1,58 @@
+package com.descodeuses.planit.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Compteur de modifications par utilisateur : incrémenté à chaque écriture qui change
+// une de ses listes (tâches, projets, contacts). Sert d'ETag aux listes sans les relire.
+@Entity
+@Table(name = "user_watermark")
+public class UserWatermarkEntity {
+
+    // Même id que l'utilisateur (une ligne par utilisateur, créée à sa première écriture)
+    @Id
+    @Column(name = "utilisateur_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private long version;
+
+    // Plus grand numéro de modification des suppressions purgées (voir TombstonePurger) :
+    // un jeton de synchronisation plus ancien ne permet plus de calcul différentiel
+    @Column(name = "purged_seq", columnDefinition = "bigint default 0 not null")
+    private long purgedSeq;
+
+    public UserWatermarkEntity() {
+    }
+
+    public UserWatermarkEntity(Long userId, long version) {
+        this.userId = userId;
+        this.version = version;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public long getPurgedSeq() {
+        return purgedSeq;
+    }
+
+    public void setPurgedSeq(long purgedSeq) {
+        this.purgedSeq = purgedSeq;
+    }
+}
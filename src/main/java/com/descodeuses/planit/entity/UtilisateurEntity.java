@@ -4,6 +4,10 @@ package com.descodeuses.planit.entity;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 // Import des annotations JPA pour définir une entité de base de données
 import jakarta.persistence.Entity;
@@ -11,6 +15,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 // Indique que cette classe est une entité JPA (table en base de données)
@@ -18,13 +23,18 @@ import jakarta.persistence.Table;
 
 // Spécifie le nom de la table dans la base : "utilisateur"
 @Table(name = "utilisateur")
+
+// Cache de second niveau : propriétaire, assignés et membres relus à presque chaque requête (voir hibernate-cache.conf)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "utilisateur")
 public class UtilisateurEntity {
 
     // Clé primaire de l'entité (colonne `id`)
     @Id
 
-    // Génération automatique de l'ID par la base (auto-incrémentée)
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // ID issu de la séquence utilisateur_seq, réservé par blocs de 50 (insertions en lots JDBC)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "utilisateur_seq")
+    @SequenceGenerator(name = "utilisateur_seq", sequenceName = "utilisateur_seq", allocationSize = 50)
     private Long id;
 
     // Relation 1-n : un utilisateur peut avoir plusieurs actions, projets et contacts (cascade pour pouvoir supprimer ses 3 éléments si suppression utilisateur)
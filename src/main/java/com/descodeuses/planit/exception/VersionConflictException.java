@@ -0,0 +1,24 @@
+package com.descodeuses.planit.exception;
+
+// Écriture conditionnelle refusée : la version envoyée (If-Match) n'est plus la version courante.
+// Porte l'état actuel de la ressource, renvoyé au client avec la réponse 409.
+public class VersionConflictException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final transient Object current;
+    private final Long currentVersion;
+
+    public VersionConflictException(Object current, Long currentVersion) {
+        super("La ressource a été modifiée entre-temps (version actuelle : " + currentVersion + ")");
+        this.current = current;
+        this.currentVersion = currentVersion;
+    }
+
+    public Object getCurrent() {
+        return current;
+    }
+
+    public Long getCurrentVersion() {
+        return currentVersion;
+    }
+}
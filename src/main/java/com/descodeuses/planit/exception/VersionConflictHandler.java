@@ -0,0 +1,31 @@
+package com.descodeuses.planit.exception;
+
+import java.util.Map;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import com.descodeuses.planit.controller.ETags;
+
+// Traduit les conflits de version en réponses 409
+@RestControllerAdvice
+public class VersionConflictHandler {
+
+    // If-Match périmé : renvoie l'état courant et son ETag, le client peut fusionner puis réessayer
+    @ExceptionHandler(VersionConflictException.class)
+    public ResponseEntity<Object> handleVersionConflict(VersionConflictException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .eTag(ETags.of(e.getCurrentVersion()))
+                .body(e.getCurrent());
+    }
+
+    // Écriture concurrente détectée par Hibernate au moment de l'UPDATE (... where version = ?)
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, String>> handleOptimisticLock(OptimisticLockingFailureException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("message", "La ressource a été modifiée entre-temps, rechargez-la avant de réessayer"));
+    }
+}
@@ -0,0 +1,32 @@
+// Listener de session Hibernate : mesure le temps passé dans l'exécution JDBC
+// (requêtes et lots), instancié par Hibernate pour chaque session
+
+package com.descodeuses.planit.metrics;
+
+import org.hibernate.BaseSessionEventListener;
+
+public class JdbcTimingSessionListener extends BaseSessionEventListener {
+
+    private long statementStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        SqlStatistics.jdbcTime(System.nanoTime() - statementStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        SqlStatistics.jdbcTime(System.nanoTime() - batchStart);
+    }
+}
@@ -0,0 +1,42 @@
+// Métriques des régions du cache de second niveau Hibernate (hibernate-cache.conf) :
+// cache.gets (hit / miss), cache.puts, cache.evictions, cache.size... avec le tag cache=<région>.
+// Complète hibernate.second.level.cache.* publiées par hibernate-micrometer, qui n'expose pas les évictions.
+
+package com.descodeuses.planit.metrics;
+
+import javax.cache.CacheManager;
+
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.persistence.EntityManagerFactory;
+
+@Component
+public class L2CacheMetrics implements MeterBinder {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public L2CacheMetrics(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        if (!(sessionFactory.getCache().getRegionFactory() instanceof JCacheRegionFactory regionFactory)) {
+            return; // Cache de second niveau désactivé
+        }
+        CacheManager cacheManager = regionFactory.getCacheManager();
+        for (String region : cacheManager.getCacheNames()) {
+            @SuppressWarnings("unchecked")
+            Cache<Object, Object> cache = cacheManager.getCache(region).unwrap(Cache.class);
+            CaffeineCacheMetrics.monitor(registry, cache, region);
+        }
+    }
+}
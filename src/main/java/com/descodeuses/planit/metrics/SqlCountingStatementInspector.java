@@ -0,0 +1,14 @@
+// Inspecteur Hibernate : compte chaque ordre SQL préparé, sans le modifier
+
+package com.descodeuses.planit.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+public class SqlCountingStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        SqlStatistics.statementPrepared();
+        return sql;
+    }
+}
@@ -0,0 +1,71 @@
+// Filtre HTTP : publie pour chaque requête le nombre d'ordres SQL et le temps JDBC,
+// tagués par route (/api/action/{id}...), méthode et statut.
+// Permet de repérer dans /actuator/prometheus les endpoints qui multiplient les requêtes.
+
+package com.descodeuses.planit.metrics;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class SqlMetricsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry registry;
+
+    public SqlMetricsFilter(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatistics stats = SqlStatistics.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStatistics.end();
+            record(request, response, stats);
+        }
+    }
+
+    // Les endpoints Actuator ne touchent pas la base : inutile de les mesurer
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response, SqlStatistics stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Tags tags = Tags.of(
+                "uri", pattern != null ? pattern.toString() : "UNKNOWN",
+                "method", request.getMethod(),
+                "status", String.valueOf(response.getStatus()));
+
+        DistributionSummary.builder("planit.http.sql.statements")
+                .description("Ordres SQL exécutés par requête HTTP")
+                .tags(tags)
+                .register(registry)
+                .record(stats.getStatements());
+        Timer.builder("planit.http.sql.time")
+                .description("Temps JDBC cumulé par requête HTTP")
+                .tags(tags)
+                .register(registry)
+                .record(stats.getJdbcNanos(), TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,66 @@
+// Compteurs SQL de la requête HTTP en cours (nombre d'ordres SQL et temps JDBC).
+// Ouverts et fermés par SqlMetricsFilter, alimentés par Hibernate sur le même thread.
+// Hors requête (tâches de fond, démarrage), rien n'est compté.
+// Les lectures parallèles lancées par une requête s'y rattachent avec attach() : compteurs atomiques.
+
+package com.descodeuses.planit.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class SqlStatistics {
+
+    private static final ThreadLocal<SqlStatistics> CURRENT = new ThreadLocal<>();
+
+    private final AtomicInteger statements = new AtomicInteger();
+    private final AtomicLong jdbcNanos = new AtomicLong();
+
+    private SqlStatistics() {
+    }
+
+    // Démarre le comptage pour le thread courant
+    public static SqlStatistics begin() {
+        SqlStatistics stats = new SqlStatistics();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    // Compteurs de la requête en cours sur ce thread (null hors requête)
+    public static SqlStatistics current() {
+        return CURRENT.get();
+    }
+
+    // Fait compter les ordres SQL d'un thread de travail dans les compteurs de la requête qui l'a lancé
+    public static void attach(SqlStatistics stats) {
+        if (stats != null) {
+            CURRENT.set(stats);
+        }
+    }
+
+    // Arrête le comptage pour le thread courant
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    static void statementPrepared() {
+        SqlStatistics stats = CURRENT.get();
+        if (stats != null) {
+            stats.statements.incrementAndGet();
+        }
+    }
+
+    static void jdbcTime(long nanos) {
+        SqlStatistics stats = CURRENT.get();
+        if (stats != null) {
+            stats.jdbcNanos.addAndGet(nanos);
+        }
+    }
+
+    public int getStatements() {
+        return statements.get();
+    }
+
+    public long getJdbcNanos() {
+        return jdbcNanos.get();
+    }
+}
@@ -0,0 +1,109 @@
+// Surveille l'épinglage des threads virtuels (profil "virtual") :
+// un thread virtuel qui bloque dans un bloc synchronized ou un appel natif garde son thread porteur,
+// ce qui annule le bénéfice du mode virtuel et peut bloquer tout le pool de porteurs.
+// - Écoute en continu l'événement JFR jdk.VirtualThreadPinned au-delà d'un seuil
+// - Compteur planit.vthreads.pinned (tag "frame" = première méthode de l'application dans la pile)
+// - Log WARN avec la pile, une seule fois par frame, pour localiser le code à corriger (ReentrantLock au lieu de synchronized)
+
+package com.descodeuses.planit.metrics;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String APP_PACKAGE = "com.descodeuses.planit";
+
+    private final MeterRegistry registry;
+    private final Duration threshold;
+    private final Set<String> reported = ConcurrentHashMap.newKeySet();
+
+    private volatile RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry registry,
+            @Value("${planit.vthreads.pinned-threshold-ms:20}") long thresholdMs) {
+        this.registry = registry;
+        this.threshold = Duration.ofMillis(thresholdMs);
+    }
+
+    void onPinned(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        String frame = firstApplicationFrame(stackTrace);
+        Counter.builder("planit.vthreads.pinned").tag("frame", frame)
+                .description("Threads virtuels épinglés sur leur thread porteur au-delà du seuil")
+                .register(registry).increment();
+
+        if (reported.add(frame)) {
+            String stack = stackTrace == null ? "" : stackTrace.getFrames().stream()
+                    .limit(15)
+                    .map(f -> "\n\tat " + f.getMethod().getType().getName() + "." + f.getMethod().getName()
+                            + ":" + f.getLineNumber())
+                    .collect(Collectors.joining());
+            log.warn("Thread virtuel épinglé pendant {} ms ({}){}", event.getDuration().toMillis(), frame, stack);
+        }
+    }
+
+    // La première méthode de l'application identifie le chemin fautif, même si le bloc synchronized est dans une librairie
+    private static String firstApplicationFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "unknown";
+        }
+        RecordedFrame fallback = null;
+        for (RecordedFrame f : stackTrace.getFrames()) {
+            if (!f.isJavaFrame()) {
+                continue;
+            }
+            if (fallback == null) {
+                fallback = f;
+            }
+            if (f.getMethod().getType().getName().startsWith(APP_PACKAGE)) {
+                return f.getMethod().getType().getName() + "." + f.getMethod().getName();
+            }
+        }
+        return fallback == null ? "unknown"
+                : fallback.getMethod().getType().getName() + "." + fallback.getMethod().getName();
+    }
+
+    @Override
+    public void start() {
+        RecordingStream recording = new RecordingStream();
+        recording.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+        recording.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+        recording.startAsync();
+        stream = recording;
+    }
+
+    @Override
+    public void stop() {
+        RecordingStream recording = stream;
+        stream = null;
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return stream != null;
+    }
+}
@@ -1,11 +1,20 @@
 package com.descodeuses.planit.repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.descodeuses.planit.dto.ActionSummaryDTO;
+import com.descodeuses.planit.dto.TypeAheadDTO;
 import com.descodeuses.planit.entity.ActionEntity;
+import com.descodeuses.planit.entity.ContactEntity;
 import com.descodeuses.planit.entity.ProjetEntity;
 import com.descodeuses.planit.entity.UtilisateurEntity;
 
@@ -20,11 +29,170 @@ import java.util.Optional;
 public interface ActionRepository extends JpaRepository<ActionEntity, Long> {
 // pas besoin de définir des méthodes donc ActionRepository est une interface
 
+// Filtres communs aux listes paginées (un paramètre null désactive le filtre)
+String PAGE_FILTERS = " and (:completed is null or a.completed = :completed)"
+        + " and (:priorite is null or a.priorite = :priorite)"
+        + " and (:projetId is null or a.projet.id = :projetId)"
+        + " and (:dueFrom is null or a.dueDate >= :dueFrom)"
+        + " and (:dueTo is null or a.dueDate <= :dueTo)";
+
+// Pagination par curseur (keyset) sur (dueDate, id) : la page suivante reprend
+// après le dernier couple vu au lieu de sauter N lignes (pas d'OFFSET), ce qui
+// reste constant en profondeur grâce à l'index todo(utilisateur_id, due_date, id).
+// Les tâches sans échéance sont paginées à part, après toutes les tâches datées.
+String DATED_KEYSET = " and a.dueDate is not null and (a.dueDate, a.id) > (:afterDueDate, :afterId)";
+String UNDATED_KEYSET = " and a.dueDate is null and a.id > :afterId";
+
 List<ActionEntity> findByUtilisateur(UtilisateurEntity utilisateur);
 List<ActionEntity> findByProjet(ProjetEntity projet);
 // Tâches où l'utilisateur est assigné
 List<ActionEntity> findByUtilisateursAssignesContaining(UtilisateurEntity utilisateur);
 
+// Tâches où un contact est membre
+List<ActionEntity> findByMembersContaining(ContactEntity contact);
+
 // Récupère une tâche uniquement si elle appartient à un utilisateur précis
 Optional<ActionEntity> findByIdAndUtilisateurUsername(Long id, String username);
+
+// Tâches d'un lot d'opérations, limitées à celles de l'utilisateur
+List<ActionEntity> findByIdInAndUtilisateur(Collection<Long> ids, UtilisateurEntity utilisateur);
+
+// Lecture pour les listes : charge en une seule requête le propriétaire et le projet
+// (ainsi que le propriétaire du projet, relation EAGER) pour éviter un SELECT par ligne
+@Query("select a from ActionEntity a left join fetch a.utilisateur left join fetch a.projet p left join fetch p.utilisateur where a.utilisateur = :utilisateur")
+List<ActionEntity> findAllForListing(@Param("utilisateur") UtilisateurEntity utilisateur);
+
+// Même lecture limitée aux tâches modifiées depuis un jeton (index utilisateur_id, change_seq)
+@Query("select a from ActionEntity a left join fetch a.utilisateur left join fetch a.projet p left join fetch p.utilisateur where a.utilisateur = :utilisateur and a.changeSeq > :since")
+List<ActionEntity> findChangedForListing(@Param("utilisateur") UtilisateurEntity utilisateur, @Param("since") long since);
+
+// Même lecture pour les tâches où l'utilisateur est assigné (propriétaires différents : un SELECT par propriétaire sinon)
+@Query("select a from ActionEntity a join a.utilisateursAssignes u left join fetch a.utilisateur left join fetch a.projet p left join fetch p.utilisateur where u = :utilisateur")
+List<ActionEntity> findAssignedForListing(@Param("utilisateur") UtilisateurEntity utilisateur);
+
+// Initialise en une requête la collection des membres (todo_contact) de toutes les tâches passées
+@Query("select distinct a from ActionEntity a left join fetch a.members m left join fetch m.utilisateur where a in :actions")
+List<ActionEntity> fetchMembers(@Param("actions") Collection<ActionEntity> actions);
+
+// Initialise en une requête la collection des utilisateurs assignés (todo_utilisateur_assigne)
+@Query("select distinct a from ActionEntity a left join fetch a.utilisateursAssignes where a in :actions")
+List<ActionEntity> fetchUtilisateursAssignes(@Param("actions") Collection<ActionEntity> actions);
+
+// Vues "summary" : construisent directement les DTO (pas d'entité chargée ni de
+// collection parcourue), a.projet.id est lu depuis la clé étrangère sans jointure
+@Query("select new com.descodeuses.planit.dto.ActionSummaryDTO(a.id, a.title, a.completed, a.dueDate, a.priorite, a.projet.id)"
+        + " from ActionEntity a where a.utilisateur = :utilisateur order by a.id")
+List<ActionSummaryDTO> findSummariesByUtilisateur(@Param("utilisateur") UtilisateurEntity utilisateur);
+
+@Query("select new com.descodeuses.planit.dto.ActionSummaryDTO(a.id, a.title, a.completed, a.dueDate, a.priorite, a.projet.id)"
+        + " from ActionEntity a join a.utilisateursAssignes u where u = :utilisateur order by a.id")
+List<ActionSummaryDTO> findSummariesByUtilisateurAssigne(@Param("utilisateur") UtilisateurEntity utilisateur);
+
+// Même lecture pour une liste d'ids (page de résultats de recherche)
+@Query("select a from ActionEntity a left join fetch a.utilisateur left join fetch a.projet p left join fetch p.utilisateur where a.id in :ids")
+List<ActionEntity> findForListingByIdIn(@Param("ids") Collection<Long> ids);
+
+// Recherche plein texte PostgreSQL (colonne search_vector + index GIN, voir SearchSchemaInitializer) :
+// tâches possédées ou assignées, triées par pertinence puis par id
+@Query(value = """
+        select t.id from todo t cross join websearch_to_tsquery('french', :terms) q
+        where t.search_vector @@ q
+          and (t.utilisateur_id = :userId
+               or exists (select 1 from todo_utilisateur_assigne a where a.todo_id = t.id and a.utilisateur_id = :userId))
+        order by ts_rank(t.search_vector, q) desc, t.id desc
+        limit :limit offset :offset
+        """, nativeQuery = true)
+List<Long> searchRanked(@Param("terms") String terms, @Param("userId") Long userId, @Param("limit") int limit,
+        @Param("offset") int offset);
+
+// Ids des tâches possédées ou assignées (filtre d'accès de l'index de recherche en mémoire)
+@Query("select a.id from ActionEntity a where a.utilisateur.id = :userId"
+        + " or exists (select 1 from a.utilisateursAssignes u where u.id = :userId)")
+Set<Long> findAccessibleIds(@Param("userId") Long userId);
+
+// Texte indexé de toutes les tâches (chargement initial de l'index de recherche en mémoire)
+@Query("select a.id as id, a.title as title, a.textarea as textarea from ActionEntity a")
+List<SearchText> findAllSearchText();
+
+interface SearchText {
+    Long getId();
+
+    String getTitle();
+
+    String getTextarea();
+}
+
+// Titres des tâches possédées ou assignées (construction de l'index de saisie semi-automatique)
+@Query("select new com.descodeuses.planit.dto.TypeAheadDTO('action', a.id, a.title, cast(null as String), a.version)"
+        + " from ActionEntity a where a.utilisateur.id = :userId"
+        + " or exists (select 1 from a.utilisateursAssignes u where u.id = :userId)")
+List<TypeAheadDTO> findTypeAhead(@Param("userId") Long userId);
+
+// Compteurs du tableau de bord (GET /api/action/stats) : une ligne par combinaison
+// projet / priorité / terminée / tranche d'échéance, calculée par la base (GROUP BY)
+// Tranche calculée dans une sous-requête : le GROUP BY porte sur ses colonnes, sans répéter
+// l'expression paramétrée (PostgreSQL ne reconnaît pas deux paramètres liés comme la même expression)
+@Query(value = """
+        select projetId, projetTitle, priorite, completed, echeance, count(*) as total
+        from (select t.projet_id as projetId, p.title as projetTitle, t.priorite as priorite,
+                     t.completed as completed,
+                     case when t.due_date is null then 'none'
+                          when t.due_date < :today then 'overdue'
+                          when t.due_date = :today then 'today'
+                          when t.due_date <= :weekEnd then 'week'
+                          else 'later' end as echeance
+              from todo t left join projet p on p.id = t.projet_id
+              where t.utilisateur_id = :userId) s
+        group by projetId, projetTitle, priorite, completed, echeance
+        """, nativeQuery = true)
+List<StatsRow> countStats(@Param("userId") Long userId, @Param("today") LocalDate today,
+        @Param("weekEnd") LocalDate weekEnd);
+
+interface StatsRow {
+    Long getProjetId();
+
+    String getProjetTitle();
+
+    Integer getPriorite();
+
+    Boolean getCompleted();
+
+    String getEcheance();
+
+    Long getTotal();
+}
+
+// Pages des tâches dont l'utilisateur est propriétaire
+@Query("select a from ActionEntity a where a.utilisateur = :utilisateur" + DATED_KEYSET + PAGE_FILTERS
+        + " order by a.dueDate, a.id")
+List<ActionEntity> findDatedPageByUtilisateur(@Param("utilisateur") UtilisateurEntity utilisateur,
+        @Param("afterDueDate") LocalDate afterDueDate, @Param("afterId") Long afterId,
+        @Param("completed") Boolean completed, @Param("priorite") Integer priorite,
+        @Param("projetId") Long projetId, @Param("dueFrom") LocalDate dueFrom, @Param("dueTo") LocalDate dueTo,
+        Pageable pageable);
+
+@Query("select a from ActionEntity a where a.utilisateur = :utilisateur" + UNDATED_KEYSET + PAGE_FILTERS
+        + " order by a.id")
+List<ActionEntity> findUndatedPageByUtilisateur(@Param("utilisateur") UtilisateurEntity utilisateur,
+        @Param("afterId") Long afterId,
+        @Param("completed") Boolean completed, @Param("priorite") Integer priorite,
+        @Param("projetId") Long projetId, @Param("dueFrom") LocalDate dueFrom, @Param("dueTo") LocalDate dueTo,
+        Pageable pageable);
+
+// Pages des tâches où l'utilisateur est assigné
+@Query("select a from ActionEntity a join a.utilisateursAssignes u where u = :utilisateur" + DATED_KEYSET
+        + PAGE_FILTERS + " order by a.dueDate, a.id")
+List<ActionEntity> findDatedPageByUtilisateurAssigne(@Param("utilisateur") UtilisateurEntity utilisateur,
+        @Param("afterDueDate") LocalDate afterDueDate, @Param("afterId") Long afterId,
+        @Param("completed") Boolean completed, @Param("priorite") Integer priorite,
+        @Param("projetId") Long projetId, @Param("dueFrom") LocalDate dueFrom, @Param("dueTo") LocalDate dueTo,
+        Pageable pageable);
+
+@Query("select a from ActionEntity a join a.utilisateursAssignes u where u = :utilisateur" + UNDATED_KEYSET
+        + PAGE_FILTERS + " order by a.id")
+List<ActionEntity> findUndatedPageByUtilisateurAssigne(@Param("utilisateur") UtilisateurEntity utilisateur,
+        @Param("afterId") Long afterId,
+        @Param("completed") Boolean completed, @Param("priorite") Integer priorite,
+        @Param("projetId") Long projetId, @Param("dueFrom") LocalDate dueFrom, @Param("dueTo") LocalDate dueTo,
+        Pageable pageable);
 }
@@ -0,0 +1,28 @@
+package com.descodeuses.planit.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.descodeuses.planit.entity.ActionTombstoneEntity;
+
+@Repository
+public interface ActionTombstoneRepository extends JpaRepository<ActionTombstoneEntity, Long> {
+
+    // Ids des tâches supprimées depuis un jeton (index utilisateur_id, change_seq)
+    @Query("select t.actionId from ActionTombstoneEntity t where t.utilisateurId = :utilisateurId and t.changeSeq > :since")
+    List<Long> findDeletedIdsSince(@Param("utilisateurId") Long utilisateurId, @Param("since") long since);
+
+    @Modifying
+    @Query("delete from ActionTombstoneEntity t where t.deletedAt < :cutoff")
+    int deleteDeletedBefore(@Param("cutoff") Instant cutoff);
+
+    @Modifying
+    @Query("delete from ActionTombstoneEntity t where t.utilisateurId = :utilisateurId")
+    int deleteByUtilisateurId(@Param("utilisateurId") Long utilisateurId);
+}
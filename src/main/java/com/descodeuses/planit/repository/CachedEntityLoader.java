@@ -0,0 +1,40 @@
+package com.descodeuses.planit.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.EntityManager;
+
+// Chargement de plusieurs entités par id en passant par le cache de second niveau.
+// findAllById (Spring Data) exécute toujours "where id in (...)" ; ici seuls les ids absents
+// de la session et du cache sont lus en base, en une requête. Les ids inexistants sont ignorés.
+@Component
+public class CachedEntityLoader {
+
+    private final EntityManager entityManager;
+
+    public CachedEntityLoader(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    public <T> List<T> findAllById(Class<T> type, Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.unwrap(Session.class)
+                .byMultipleIds(type)
+                // Sans mode de cache explicite, multiLoad ne consulte ni la session ni le cache
+                .with(CacheMode.NORMAL)
+                .enableSessionCheck(true)
+                .multiLoad(new ArrayList<>(ids))
+                .stream()
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
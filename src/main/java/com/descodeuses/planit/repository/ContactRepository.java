@@ -3,8 +3,11 @@ package com.descodeuses.planit.repository;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.descodeuses.planit.dto.TypeAheadDTO;
 import com.descodeuses.planit.entity.ContactEntity;
 import com.descodeuses.planit.entity.UtilisateurEntity;
 
@@ -13,4 +16,10 @@ import com.descodeuses.planit.entity.UtilisateurEntity;
 public interface ContactRepository extends JpaRepository<ContactEntity, Long> {
 
     List<ContactEntity> findByUtilisateur(UtilisateurEntity utilisateur);
-}
\ No newline at end of file
+
+    // Contacts de l'utilisateur (construction de l'index de saisie semi-automatique)
+    @Query("select new com.descodeuses.planit.dto.TypeAheadDTO('contact', c.id,"
+            + " trim(concat(coalesce(c.prenom, ''), ' ', coalesce(c.nom, ''))), c.email, c.version)"
+            + " from ContactEntity c where c.utilisateur.id = :userId")
+    List<TypeAheadDTO> findTypeAhead(@Param("userId") Long userId);
+}
@@ -3,8 +3,11 @@ package com.descodeuses.planit.repository;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.descodeuses.planit.dto.TypeAheadDTO;
 import com.descodeuses.planit.entity.ProjetEntity;
 import com.descodeuses.planit.entity.UtilisateurEntity;
 
@@ -12,4 +15,25 @@ import com.descodeuses.planit.entity.UtilisateurEntity;
 public interface ProjetRepository extends JpaRepository<ProjetEntity, Long> {
     List<ProjetEntity> findByUtilisateur(UtilisateurEntity utilisateur);
     List<ProjetEntity> findByMembresContaining(UtilisateurEntity utilisateur); // membre
-}
\ No newline at end of file
+
+    // Projets dont l'utilisateur est propriétaire OU membre, en une requête et sans doublon
+    // (EXISTS plutôt qu'une jointure sur les membres, qui dupliquerait les lignes ;
+    // propriétaire chargé dans la même requête, sinon une requête de plus par propriétaire)
+    @Query("""
+            select p from ProjetEntity p
+            join fetch p.utilisateur
+            where p.utilisateur.id = :userId
+               or exists (select 1 from p.membres m where m.id = :userId)
+            order by p.id
+            """)
+    List<ProjetEntity> findOwnedOrMember(@Param("userId") Long userId);
+
+    // Projets possédés ou partagés (construction de l'index de saisie semi-automatique)
+    @Query("""
+            select new com.descodeuses.planit.dto.TypeAheadDTO('projet', p.id, p.title, cast(null as String), p.version)
+            from ProjetEntity p
+            where p.utilisateur.id = :userId
+               or exists (select 1 from p.membres m where m.id = :userId)
+            """)
+    List<TypeAheadDTO> findTypeAhead(@Param("userId") Long userId);
+}
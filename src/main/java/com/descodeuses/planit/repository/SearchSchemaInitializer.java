@@ -0,0 +1,56 @@
+// Crée au démarrage la colonne de recherche plein texte des tâches (PostgreSQL uniquement).
+// - search_vector : tsvector calculé par la base à partir du titre (poids A) et de la description (poids B),
+//   colonne générée STORED, donc tenue à jour à chaque INSERT / UPDATE sans code applicatif
+// - idx_todo_search : index GIN utilisé par websearch_to_tsquery / @@
+// Colonne non mappée dans ActionEntity : ddl-auto ne sait pas la créer et H2 ne connaît pas tsvector.
+// Idempotent : sans effet si la colonne et l'index existent déjà.
+// Exécuté pendant le démarrage du contexte, après la création du schéma par Hibernate (dépend de
+// l'EntityManagerFactory) et avant que le serveur web n'accepte des requêtes : aucune recherche ne
+// peut précéder la colonne, et la réécriture de la table (ajout d'une colonne STORED, verrou exclusif,
+// une seule fois) se fait sans trafic.
+
+package com.descodeuses.planit.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+@Component
+@DependsOn("entityManagerFactory")
+public class SearchSchemaInitializer implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchSchemaInitializer.class);
+
+    // La configuration ('french') doit être la même que dans ActionRepository.searchRanked
+    private static final String ADD_COLUMN = """
+            alter table todo add column if not exists search_vector tsvector
+            generated always as (
+                setweight(to_tsvector('french', coalesce(title, '')), 'A')
+                || setweight(to_tsvector('french', coalesce(textarea, '')), 'B')
+            ) stored
+            """;
+
+    private static final String ADD_INDEX = "create index if not exists idx_todo_search on todo using gin (search_vector)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SearchSchemaInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            return;
+        }
+        jdbcTemplate.execute(ADD_COLUMN);
+        jdbcTemplate.execute(ADD_INDEX);
+        log.info("Recherche plein texte : colonne todo.search_vector et index GIN prêts");
+    }
+}
@@ -0,0 +1,89 @@
+// Aligne au démarrage les séquences d'ID sur les données existantes (PostgreSQL uniquement).
+// Les tables créées avant le passage de IDENTITY à SEQUENCE contiennent déjà des IDs :
+// la séquence créée par Hibernate repart de 1 et produirait des doublons.
+// On la positionne donc au-delà du plus grand ID existant (opération sans effet si elle l'est déjà).
+// Exécuté avant la création de l'EntityManagerFactory (voir DependsOnPostProcessor) : aucune requête
+// ne peut obtenir un ID avant l'alignement. Séquence absente (ddl-auto ne l'a pas encore créée) :
+// on la crée directement à la bonne valeur, Hibernate la réutilise.
+
+package com.descodeuses.planit.repository;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+@Component
+public class SequenceAligner implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SequenceAligner.class);
+
+    // Doit correspondre à allocationSize des @SequenceGenerator
+    static final int ALLOCATION_SIZE = 50;
+
+    // Table -> séquence de son ID
+    private record AlignedSequence(String table, String sequence) {
+    }
+
+    private static final List<AlignedSequence> SEQUENCES = List.of(
+            new AlignedSequence("todo", "todo_seq"),
+            new AlignedSequence("contact", "contact_seq"),
+            new AlignedSequence("projet", "projet_seq"),
+            new AlignedSequence("utilisateur", "utilisateur_seq"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SequenceAligner(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Fait dépendre l'EntityManagerFactory de l'alignement (mécanisme utilisé par Boot pour Flyway)
+    @Component
+    static class DependsOnPostProcessor extends EntityManagerFactoryDependsOnPostProcessor {
+        DependsOnPostProcessor() {
+            super(SequenceAligner.class);
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            return;
+        }
+        SEQUENCES.forEach(this::align);
+    }
+
+    // Le prochain nextval doit couvrir un bloc entièrement au-dessus du plus grand ID
+    private void align(AlignedSequence aligned) {
+        // Base neuve : Hibernate créera la table et sa séquence
+        if (!exists(aligned.table())) {
+            return;
+        }
+        Long maxId = jdbcTemplate.queryForObject(
+                "select coalesce(max(id), 0) from " + aligned.table(), Long.class);
+        long target = maxId + ALLOCATION_SIZE;
+        if (!exists(aligned.sequence())) {
+            jdbcTemplate.execute("create sequence " + aligned.sequence() + " start with " + target
+                    + " increment by " + ALLOCATION_SIZE);
+            log.info("Séquence {} créée à {} (max id de {} = {})", aligned.sequence(), target, aligned.table(), maxId);
+            return;
+        }
+        Long lastValue = jdbcTemplate.queryForObject(
+                "select last_value from " + aligned.sequence(), Long.class);
+        if (lastValue < target) {
+            jdbcTemplate.queryForObject("select setval(?, ?, false)", Long.class, aligned.sequence(), target);
+            log.info("Séquence {} alignée sur {} (max id de {} = {})", aligned.sequence(), target, aligned.table(), maxId);
+        }
+    }
+
+    private boolean exists(String relation) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("select to_regclass(?) is not null", Boolean.class, relation));
+    }
+}
@@ -0,0 +1,67 @@
+package com.descodeuses.planit.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.descodeuses.planit.entity.UserWatermarkEntity;
+
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface UserWatermarkRepository extends JpaRepository<UserWatermarkEntity, Long> {
+
+    // Lecture du seul compteur (une requête sur la clé primaire, aucune entité chargée)
+    @Query("select w.version from UserWatermarkEntity w where w.userId = :userId")
+    Optional<Long> findVersion(@Param("userId") Long userId);
+
+    // Incrément atomique en base (pas de lecture préalable, pas de mise à jour perdue)
+    @Modifying
+    @Query("update UserWatermarkEntity w set w.version = w.version + 1 where w.userId in :userIds")
+    int increment(@Param("userIds") Collection<Long> userIds);
+
+    // Première écriture d'un utilisateur : création de sa ligne, ou incrément si une transaction
+    // concurrente vient de la créer (une seule instruction, pas de doublon de clé)
+    // Espace de requête déclaré : sans lui Hibernate invaliderait tout le cache de second niveau
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_watermark"))
+    @Query(value = """
+            insert into user_watermark (utilisateur_id, version, purged_seq) values (:userId, 1, 0)
+            on conflict (utilisateur_id) do update set version = user_watermark.version + 1
+            """, nativeQuery = true)
+    int upsertPostgres(@Param("userId") Long userId);
+
+    // Équivalent H2 (base des tests, pas de ON CONFLICT ... DO UPDATE) : une seule instruction,
+    // mais sans la garantie de PostgreSQL face à deux créations simultanées
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_watermark"))
+    @Query(value = """
+            merge into user_watermark w using (values (cast(:userId as bigint))) s(id) on w.utilisateur_id = s.id
+            when matched then update set version = w.version + 1
+            when not matched then insert (utilisateur_id, version, purged_seq) values (s.id, 1, 0)
+            """, nativeQuery = true)
+    int upsertH2(@Param("userId") Long userId);
+
+    @Query("select w.userId from UserWatermarkEntity w where w.userId in :userIds")
+    List<Long> findExistingUserIds(@Param("userIds") Collection<Long> userIds);
+
+    @Query("select w.purgedSeq from UserWatermarkEntity w where w.userId = :userId")
+    Optional<Long> findPurgedSeq(@Param("userId") Long userId);
+
+    // Avant la purge des suppressions antérieures à cutoff : retient pour chaque utilisateur
+    // le plus grand numéro de modification purgé
+    @Modifying
+    @Query("update UserWatermarkEntity w set w.purgedSeq = (select max(t.changeSeq) from ActionTombstoneEntity t"
+            + " where t.utilisateurId = w.userId and t.deletedAt < :cutoff)"
+            + " where exists (select 1 from ActionTombstoneEntity t where t.utilisateurId = w.userId and t.deletedAt < :cutoff)")
+    int markPurged(@Param("cutoff") Instant cutoff);
+}
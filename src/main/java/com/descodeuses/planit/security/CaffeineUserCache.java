@@ -0,0 +1,84 @@
+// Cache des UserDetails utilisés à la connexion (DaoAuthenticationProvider, voir SecurityConfig) :
+// un login répété ne relit plus l'utilisateur en base.
+// - Taille bornée, expiration une minute après écriture
+// - Vidé après commit quand l'utilisateur change (mot de passe, rôle, nom) ou est supprimé, mais
+//   seulement sur l'instance qui a fait la modification : sur les autres, l'ancien mot de passe
+//   (ou un utilisateur supprimé) reste accepté jusqu'à l'expiration de l'entrée, d'où sa durée courte
+// - Si le mot de passe saisi ne correspond pas à l'entrée en cache, Spring Security relit la base
+// - Copie à l'entrée et à la sortie : Spring Security efface le mot de passe du principal
+//   retourné après authentification, l'entrée en cache doit le garder
+
+package com.descodeuses.planit.security;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+@Component
+public class CaffeineUserCache implements UserCache {
+
+    private final Cache<String, UserDetails> users;
+
+    public CaffeineUserCache(MeterRegistry registry,
+            @Value("${planit.login.user-cache.max-size:10000}") long maxSize,
+            @Value("${planit.login.user-cache.expire-after-write-seconds:60}") long expireSeconds) {
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, users, "planit.login.users");
+    }
+
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        UserDetails user = users.getIfPresent(username);
+        return user == null ? null : copy(user);
+    }
+
+    @Override
+    public void putUserInCache(UserDetails user) {
+        users.put(user.getUsername(), copy(user));
+    }
+
+    @Override
+    public void removeUserFromCache(String username) {
+        users.invalidate(username);
+    }
+
+    // Retire les utilisateurs après le commit de la transaction en cours (tout de suite sans transaction) :
+    // une connexion concurrente ne peut pas remettre en cache l'état d'avant la modification
+    public void evictAfterCommit(String... usernames) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    users.invalidateAll(List.of(usernames));
+                }
+            });
+        } else {
+            users.invalidateAll(List.of(usernames));
+        }
+    }
+
+    private static UserDetails copy(UserDetails user) {
+        if (user instanceof UtilisateurPrincipal principal) {
+            return new UtilisateurPrincipal(principal.getId(), principal.getUsername(), principal.getPassword(),
+                    principal.getAuthorities());
+        }
+        return User.withUserDetails(user).build();
+    }
+}
@@ -6,6 +6,7 @@ package com.descodeuses.planit.security;
 import java.io.IOException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -16,7 +17,6 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -33,6 +33,13 @@ public class JwtFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsService userDetailsService; // Pour charger les informations d'un utilisateur
 
+    // Mode sans état : le principal est construit depuis les claims vérifiés du token
+    // (id, username, rôles) sans relire l'utilisateur en base à chaque requête.
+    // Un utilisateur supprimé ou dont le rôle change garde donc son accès jusqu'à
+    // l'expiration de son token. Les anciens tokens sans "uid" passent par la base.
+    @Value("${jwt.stateless:true}")
+    private boolean stateless;
+
     // Méthode appelée à chaque requête HTTP (filtre exécuté une seule fois par
     // requête)
     @Override
@@ -50,37 +57,42 @@ public class JwtFilter extends OncePerRequestFilter {
         // Récupère le header Authorization de la requête HTTP
         final String authHeader = request.getHeader("Authorization");
         String username = null;
-        String jwt = null;
+        Claims claims = null;
 
         // Vérifie que le header commence bien par "Bearer " et extrait le token
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            jwt = authHeader.substring(7); // Supprime "Bearer " pour ne garder que le token
-            username = jwtUtil.extractUsername(jwt); // Extrait le nom d'utilisateur du token
+            String jwt = authHeader.substring(7); // Supprime "Bearer " pour ne garder que le token
+            // Vérifie la signature une seule fois et récupère les "claims" (informations)
+            // stockées dans le token (mis en cache pour les requêtes suivantes)
+            claims = jwtUtil.extractAllClaims(jwt);
+            username = claims.getSubject(); // Extrait le nom d'utilisateur du token
         }
 
         // Si un username est trouvé et qu'aucune auth n'est déjà présente dans le
         // contexte
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username); // Charge l'utilisateur depuis la
-                                                                                       // DB ou mémoire
-
-            // Vérifie la validité du token (signature, expiration, correspondance user)
-            if (jwtUtil.validateToken(jwt, userDetails)) {
-
-                // Récupère les "claims" (informations) stockées dans le token
-                Claims claims = Jwts.parserBuilder()
-                        .setSigningKey(jwtUtil.getSigningKey()) // Clé utilisée pour signer/valider
-                        .build()
-                        .parseClaimsJws(jwt)
-                        .getBody();
-
-                // Récupère la liste des rôles depuis les claims JWT
-                List<String> roles = claims.get("roles", List.class);
-
-                // Transforme chaque rôle en autorité Spring Security
-                List<SimpleGrantedAuthority> authorities = roles.stream()
-                        .map(SimpleGrantedAuthority::new)
-                        .toList();
+            Long userId = jwtUtil.extractUserId(claims);
+
+            // Récupère la liste des rôles depuis les claims JWT
+            @SuppressWarnings("unchecked")
+            List<String> roles = claims.get("roles", List.class);
+
+            // Transforme chaque rôle en autorité Spring Security
+            List<SimpleGrantedAuthority> authorities = roles.stream()
+                    .map(SimpleGrantedAuthority::new)
+                    .toList();
+
+            UserDetails userDetails;
+            if (stateless && userId != null) {
+                // Principal reconstruit depuis le token : aucun accès base
+                userDetails = new UtilisateurPrincipal(userId, username, "", authorities);
+            } else {
+                userDetails = userDetailsService.loadUserByUsername(username); // Charge l'utilisateur depuis la
+                                                                               // DB ou mémoire
+            }
+
+            // Vérifie la validité des claims (expiration, correspondance user)
+            if (jwtUtil.validateClaims(claims, userDetails)) {
 
                 // Crée un objet d'authentification avec les infos utilisateur et ses rôles
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
@@ -6,11 +6,21 @@ package com.descodeuses.planit.security;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -20,6 +30,45 @@ public class JwtUtil {
     // Clé secrète encodée en Base64 (minimum 256 bits pour HS256)
     private static final String SECRET_KEY = "YWFhYWFhYWFhYWFhYWFhYWFhYWFhYWFhYWFhYWFhYWE=";
 
+    // Durée de conservation en cache d'un token sans date d'expiration
+    private static final long DEFAULT_CACHE_TTL_MS = 1000 * 60 * 60;
+
+    // Clé et parser construits une seule fois (le parser est thread-safe)
+    private final Key signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY));
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+
+    // Cache des claims déjà vérifiés, indexé par l'empreinte SHA-256 du token :
+    // chaque token n'est parsé et sa signature vérifiée qu'une fois tant qu'il est en cache.
+    // Borné en taille, et chaque entrée expire avec le token lui-même.
+    private final Cache<String, Claims> claimsCache;
+
+    public JwtUtil(@Value("${jwt.claims-cache.max-size:10000}") long claimsCacheMaxSize) {
+        this.claimsCache = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        Date expiration = claims.getExpiration();
+                        long ttlMs = expiration == null ? DEFAULT_CACHE_TTL_MS
+                                : expiration.getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(ttlMs, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
     // Extrait le nom d'utilisateur (subject) depuis le token JWT
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -37,17 +86,34 @@ public class JwtUtil {
     }
 
     // Extrait tous les claims (informations) contenus dans le token JWT
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey()) // Utilise la clé secrète pour décoder
-                .build()
+    // Le token est parsé et sa signature vérifiée au premier appel, puis les claims sont
+    // servis depuis le cache. Lève une JwtException si le token est invalide ou expiré.
+    public Claims extractAllClaims(String token) {
+        return claimsCache.get(hash(token), key -> parser
                 .parseClaimsJws(token) // Parse et valide la signature du token
-                .getBody(); // Récupère le corps du token (les claims)
+                .getBody()); // Récupère le corps du token (les claims)
+    }
+
+    // Empreinte du token utilisée comme clé de cache (le token brut n'est pas conservé)
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
-    // Vérifie si le token est expiré en comparant la date d'expiration avec la date actuelle
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    // Récupère l'id de l'utilisateur (claim "uid"), null pour un token émis sans id
+    public Long extractUserId(Claims claims) {
+        Object uid = claims.get("uid");
+        return uid instanceof Number number ? number.longValue() : null;
+    }
+
+    // Vérifie si les claims sont expirés en comparant la date d'expiration avec la date actuelle
+    public boolean isExpired(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return expiration != null && expiration.before(new Date());
     }
 
     // Génère un token JWT à partir d'un UserDetails (utilisateur)
@@ -62,6 +128,11 @@ public class JwtUtil {
 
         claims.put("roles", roles);
 
+        // Ajoute l'id de l'utilisateur pour l'authentification sans accès base (JwtFilter)
+        if (userDetails instanceof UtilisateurPrincipal principal) {
+            claims.put("uid", principal.getId());
+        }
+
         // Crée le token en utilisant le sujet (username) et les claims
         return createToken(claims, userDetails.getUsername());
     }
@@ -75,20 +146,23 @@ public class JwtUtil {
                 .setSubject(subject) // Sujet du token (nom d'utilisateur)
                 .setIssuedAt(new Date(System.currentTimeMillis())) // Date d'émission
                 .setExpiration(new Date(System.currentTimeMillis() + validityInMs)) // Date d'expiration
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256) // Signature avec clé et algorithme
+                .signWith(signingKey, SignatureAlgorithm.HS256) // Signature avec clé et algorithme
                 .compact(); // Génère le token sous forme de chaîne compacte
     }
 
     // Valide le token en vérifiant que le username correspond et que le token n'est pas expiré
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateClaims(extractAllClaims(token), userDetails);
+    }
+
+    // Même vérification à partir de claims déjà extraits (évite de relire le token)
+    public boolean validateClaims(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername()) && !isExpired(claims);
     }
 
-    // Retourne la clé secrète utilisée pour signer et vérifier le token,
-    // en décodant la clé Base64 et en la convertissant en Key compatible avec HS256
+    // Retourne la clé secrète utilisée pour signer et vérifier le token
+    // (décodée une seule fois depuis la clé Base64, compatible HS256)
     public Key getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,63 @@
+// Encodage des mots de passe : BCrypt dont le coût est calibré au démarrage sur la machine courante.
+// - Coût choisi = le plus élevé dont la durée estimée reste sous la cible (planit.password.bcrypt.target-ms),
+//   borné par min-strength (plancher de sécurité) et max-strength
+// - Hashs préfixés par l'algorithme ({bcrypt}$2a$...) ; les anciens hashs sans préfixe restent acceptés
+// - Un hash d'un autre algorithme ou d'un coût inférieur est ré-encodé au login suivant
+//   (UserDetailsPasswordService, voir UserDetailsServiceImpl). Un coût supérieur n'est jamais abaissé.
+
+package com.descodeuses.planit.security;
+
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+public final class PasswordHashing {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashing.class);
+
+    static final String BCRYPT = "bcrypt";
+    private static final int SAMPLES = 3;
+
+    private PasswordHashing() {
+    }
+
+    // Encodeur "{bcrypt}" au coût donné, qui vérifie aussi les hashs BCrypt sans préfixe
+    public static PasswordEncoder encoder(int strength) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(BCRYPT, Map.of(BCRYPT, bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
+    }
+
+    // Mesure un hash au coût minimal (meilleur de quelques essais après échauffement), puis extrapole :
+    // chaque point de coût double la durée
+    public static int calibrate(long targetMs, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minStrength);
+        probe.encode("calibration");
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibration");
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        double measuredMs = best / 1_000_000.0;
+        int strength = strengthFor(measuredMs, targetMs, minStrength, maxStrength);
+        log.info("Coût BCrypt {} (coût {} mesuré à {} ms, cible {} ms)", strength, minStrength,
+                String.format("%.1f", measuredMs), targetMs);
+        return strength;
+    }
+
+    static int strengthFor(double measuredMs, long targetMs, int minStrength, int maxStrength) {
+        int strength = minStrength;
+        double estimatedMs = measuredMs;
+        while (strength < maxStrength && estimatedMs * 2 <= targetMs) {
+            strength++;
+            estimatedMs *= 2;
+        }
+        return strength;
+    }
+}
@@ -6,13 +6,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder; // Bon choix pour le hachage des mots de passe
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -20,6 +24,8 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter; // Import clé pour une gestion CORS robuste
 
+import jakarta.servlet.DispatcherType;
+
 @Configuration // Indique à Spring que cette classe contient des définitions de beans
 @EnableWebSecurity // Active l'intégration de Spring Security
 public class SecurityConfig {
@@ -32,6 +38,21 @@ public class SecurityConfig {
                                     // la production.
 
     // ------------- AUTH MANAGER ------------
+    /**
+     * Vérification nom d'utilisateur / mot de passe (BCrypt) pour POST /auth/login.
+     * Les UserDetails sont gardés en cache : un login répété ne relit pas la base.
+     */
+    @Bean
+    public DaoAuthenticationProvider authenticationProvider(UserDetailsService userDetailsService,
+            UserDetailsPasswordService passwordService, PasswordEncoder passwordEncoder, UserCache userCache) {
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(userDetailsService);
+        provider.setPasswordEncoder(passwordEncoder);
+        provider.setUserCache(userCache);
+        // Après un login réussi, un hash d'un coût ou d'un algorithme dépassé est ré-encodé et enregistré
+        provider.setUserDetailsPasswordService(passwordService);
+        return provider;
+    }
+
     /**
      * Expose l'AuthenticationManager comme un Bean.
      * Il est nécessaire pour l'authentification (e.g., dans le service
@@ -39,8 +60,8 @@ public class SecurityConfig {
      * pour vérifier les identifiants utilisateur (username/password).
      */
     @Bean
-    public AuthenticationManager authenticationManager(AuthenticationConfiguration authConfig) throws Exception {
-        return authConfig.getAuthenticationManager();
+    public AuthenticationManager authenticationManager(DaoAuthenticationProvider authenticationProvider) {
+        return new ProviderManager(authenticationProvider);
     }
 
     // ------------- CORS GLOBAL ET ROBUSTE ------------
@@ -72,7 +93,7 @@ public class SecurityConfig {
      * Définit la chaîne de filtres de sécurité. C'est le cœur de la configuration.
      */
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, Environment environment) throws Exception {
 
         http
                 // 1. Désactive CSRF : Très bonne pratique pour les API sans état (stateless)
@@ -91,9 +112,23 @@ public class SecurityConfig {
                         // C'est vital pour le bon fonctionnement de CORS.
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
 
+                        // Envois asynchrones (flux SSE /api/action/stream) : la requête d'origine
+                        // a déjà été authentifiée, le JWT n'est pas revérifié à chaque envoi.
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // Autorise l'accès aux routes d'authentification (login, inscription) sans JWT.
                         .requestMatchers("/auth/**").permitAll()
 
+                        // Sondes de santé, sans JWT (/livez et /readyz sur le port de l'application).
+                        .requestMatchers("/livez", "/readyz", "/actuator/health/**").permitAll()
+
+                        // Collecte Prometheus sans JWT, uniquement sur le port de gestion
+                        // (management.server.port, non exposé publiquement).
+                        .requestMatchers(request -> "/actuator/prometheus".equals(request.getRequestURI())
+                                && Integer.valueOf(request.getLocalPort())
+                                        .equals(environment.getProperty("local.management.port", Integer.class)))
+                        .permitAll()
+
                         // Exige le rôle USER ou ADMIN pour accéder à toutes les routes de l'API.
                         .requestMatchers("/api/**").hasAnyRole("USER", "ADMIN")
 
@@ -114,9 +149,15 @@ public class SecurityConfig {
     /**
      * Définit l'encodeur de mot de passe à utiliser.
      * BCrypt est le standard de l'industrie pour le hachage sécurisé.
+     * Son coût est calibré au démarrage pour une durée cible sur cette machine
+     * (planit.password.bcrypt.strength > 0 pour le fixer), voir PasswordHashing.
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${planit.password.bcrypt.strength:0}") int strength,
+            @Value("${planit.password.bcrypt.target-ms:250}") long targetMs,
+            @Value("${planit.password.bcrypt.min-strength:10}") int minStrength,
+            @Value("${planit.password.bcrypt.max-strength:14}") int maxStrength) {
+        return PasswordHashing.encoder(strength > 0 ? strength
+                : PasswordHashing.calibrate(targetMs, minStrength, maxStrength));
     }
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+// Utilisateur authentifié tel que vu par Spring Security, avec en plus son id en base.
+// L'id est inscrit dans le JWT (claim "uid") : les requêtes suivantes peuvent ainsi
+// reconstruire le principal et référencer l'utilisateur sans relire la base.
+
+package com.descodeuses.planit.security;
+
+import java.util.Collection;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+public class UtilisateurPrincipal extends User {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+
+    public UtilisateurPrincipal(Long id, String username, String password,
+            Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, authorities);
+        this.id = id;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,17 @@
+package com.descodeuses.planit.service;
+
+import java.util.Set;
+
+import com.descodeuses.planit.dto.ActionDTO;
+
+// Écriture sur une tâche, publiée par ActionService et diffusée après le commit aux flux SSE
+// des destinataires : propriétaire et utilisateurs assignés (avant et après la modification)
+// action : état de la tâche après l'écriture (null pour une suppression), envoyé au propriétaire
+// et aux assignés actuels ; les assignés retirés ne reçoivent qu'une suppression (id seul)
+// SYNC : lot d'opérations, les destinataires rechargent leurs listes (actionId et action null)
+public record ActionChangeEvent(Type type, Long actionId, ActionDTO action, Set<Long> recipients) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED, SYNC
+    }
+}
@@ -0,0 +1,232 @@
+// Flux Server-Sent Events des changements de tâches (GET /api/action/stream).
+// - Un abonnement par connexion, rattaché à l'utilisateur connecté (quelques connexions max par utilisateur)
+// - Les événements sont diffusés après le commit (@TransactionalEventListener) : le thread de la
+//   requête se contente de les déposer dans la file bornée de chaque connexion destinataire
+// - L'envoi réseau est fait par un pool de threads partagé, une tâche à la fois par connexion
+//   (un thread virtuel par envoi quand spring.threads.virtual.enabled=true)
+// - File pleine (client trop lent) : la connexion est fermée, le client se reconnecte et
+//   rattrape les changements via GET /api/action/changes?since=<token>
+// - Commentaire périodique (heartbeat) pour garder la connexion ouverte à travers les proxies
+
+package com.descodeuses.planit.service;
+
+import java.io.IOException;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import com.descodeuses.planit.dto.ActionDTO;
+import com.descodeuses.planit.service.WatermarkService.Watermark;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Component
+public class ActionEventStream implements DisposableBean {
+
+    private final Map<Long, Deque<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final ExecutorService senders;
+    private final int bufferSize;
+    private final long timeoutMs;
+    private final int maxConnectionsPerUser;
+
+    private final Counter sent;
+    private final Counter droppedSlow;
+
+    public ActionEventStream(MeterRegistry registry,
+            @Value("${planit.sse.buffer-size:100}") int bufferSize,
+            @Value("${planit.sse.timeout-ms:1800000}") long timeoutMs,
+            @Value("${planit.sse.max-connections-per-user:5}") int maxConnectionsPerUser,
+            @Value("${planit.sse.sender-threads:8}") int senderThreads,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeoutMs;
+        this.maxConnectionsPerUser = maxConnectionsPerUser;
+
+        if (virtualThreads) {
+            // Pas de pool à dimensionner : un envoi bloqué sur un client lent ne retient aucun thread système
+            this.senders = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sse-sender-", 1).factory());
+        } else {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(senderThreads, senderThreads, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), Thread.ofPlatform().name("sse-sender-", 1).daemon().factory());
+            executor.allowCoreThreadTimeOut(true);
+            this.senders = executor;
+        }
+
+        registry.gauge("planit.sse.connections", connections);
+        this.sent = Counter.builder("planit.sse.events").description("Événements SSE envoyés").register(registry);
+        this.droppedSlow = Counter.builder("planit.sse.dropped").tag("reason", "slow")
+                .description("Connexions SSE fermées car le client ne suit pas").register(registry);
+    }
+
+    // Ouvre un flux pour l'utilisateur ; le premier événement ("ready") porte le jeton de
+    // synchronisation à utiliser avec /changes en cas de reconnexion
+    public SseEmitter subscribe(Watermark watermark) {
+        Subscriber subscriber = new Subscriber(watermark.userId(), createEmitter(timeoutMs));
+        subscriber.emitter.onCompletion(() -> remove(subscriber));
+        subscriber.emitter.onTimeout(() -> remove(subscriber));
+        subscriber.emitter.onError(e -> remove(subscriber));
+
+        // Ajout dans compute : une déconnexion concurrente ne peut pas retirer la file entre-temps
+        Deque<Subscriber> own = subscribers.compute(watermark.userId(), (id, existing) -> {
+            Deque<Subscriber> deque = existing != null ? existing : new ConcurrentLinkedDeque<>();
+            deque.addLast(subscriber);
+            return deque;
+        });
+        connections.incrementAndGet();
+        // Trop de connexions pour cet utilisateur (onglets oubliés...) : la plus ancienne est fermée
+        Subscriber oldest;
+        while (own.size() > maxConnectionsPerUser && (oldest = own.peekFirst()) != null) {
+            oldest.close();
+        }
+
+        subscriber.offer(SseEmitter.event().name("ready").data(Map.of("token", watermark.version())).build());
+        return subscriber.emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChange(ActionChangeEvent event) {
+        SseEventBuilder sse = SseEmitter.event().name(event.type().name().toLowerCase());
+        if (event.action() != null) {
+            sse.data(event.action());
+        } else if (event.actionId() != null) {
+            sse.data(Map.of("id", event.actionId()));
+        } else {
+            sse.data(Map.of());
+        }
+        // Trames construites une seule fois : build() modifie le builder, il ne peut pas être partagé
+        // entre les threads d'envoi des différents abonnés
+        Set<DataWithMediaType> frame = sse.build();
+
+        // Assignés retirés par cette écriture : ils ne voient plus la tâche, seulement sa disparition
+        // (id seul, comme une suppression) ; l'état complet va au propriétaire et aux assignés actuels
+        Set<Long> holders = holders(event.action());
+        Set<DataWithMediaType> revoked = holders == null ? frame
+                : SseEmitter.event().name("deleted").data(Map.of("id", event.actionId())).build();
+        for (Long userId : event.recipients()) {
+            Deque<Subscriber> own = subscribers.get(userId);
+            if (own != null) {
+                Set<DataWithMediaType> sent = holders == null || holders.contains(userId) ? frame : revoked;
+                own.forEach(subscriber -> subscriber.offer(sent));
+            }
+        }
+    }
+
+    // Utilisateurs qui ont encore accès à la tâche (null si l'événement ne porte pas son état)
+    private static Set<Long> holders(ActionDTO action) {
+        if (action == null) {
+            return null;
+        }
+        Set<Long> holders = new HashSet<>(action.getAssignedUserIds() == null ? Set.of() : action.getAssignedUserIds());
+        holders.add(action.getUtilisateurId());
+        return holders;
+    }
+
+    // Redéfini par les tests pour observer les trames envoyées
+    SseEmitter createEmitter(long timeoutMs) {
+        return new SseEmitter(timeoutMs);
+    }
+
+    @Scheduled(fixedRateString = "${planit.sse.heartbeat-ms:25000}")
+    public void heartbeat() {
+        Set<DataWithMediaType> ping = SseEmitter.event().comment("ping").build();
+        subscribers.values().forEach(own -> own.forEach(subscriber -> subscriber.offer(ping)));
+    }
+
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (id, own) -> {
+            if (own.remove(subscriber)) {
+                connections.decrementAndGet();
+            }
+            return own.isEmpty() ? null : own;
+        });
+    }
+
+    @Override
+    public void destroy() {
+        subscribers.values().forEach(own -> own.forEach(Subscriber::close));
+        senders.shutdownNow();
+    }
+
+    // Connexion SSE : file bornée + au plus une tâche d'envoi en cours
+    private final class Subscriber {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<DataWithMediaType>> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        // Ne bloque jamais l'appelant
+        private void offer(Set<DataWithMediaType> event) {
+            if (!queue.offer(event)) {
+                droppedSlow.increment();
+                close();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Set<DataWithMediaType> event;
+                while ((event = queue.poll()) != null) {
+                    emitter.send(event);
+                    sent.increment();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client parti ou connexion déjà terminée
+                queue.clear();
+                remove(this);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // Un événement a pu arriver entre la dernière lecture et la fin de l'envoi
+            if (!queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        private void close() {
+            queue.clear();
+            remove(this);
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.descodeuses.planit.service;
+
+import java.sql.DatabaseMetaData;
+
+import javax.sql.DataSource;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import com.descodeuses.planit.repository.ActionRepository;
+
+// Choix de la recherche plein texte selon la base : PostgreSQL (tsvector) ou index en mémoire
+@Configuration
+public class ActionSearchConfig {
+
+    @Bean
+    public ActionSearchIndex actionSearchIndex(DataSource dataSource, ActionRepository repository)
+            throws MetaDataAccessException {
+        String database = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        if ("PostgreSQL".equals(database)) {
+            return new PostgresActionSearchIndex(repository);
+        }
+        return new InMemoryActionSearchIndex(repository);
+    }
+}
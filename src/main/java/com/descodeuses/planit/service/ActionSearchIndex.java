@@ -0,0 +1,21 @@
+package com.descodeuses.planit.service;
+
+import java.util.List;
+
+// Recherche plein texte des tâches (GET /api/action/search) :
+// PostgreSQL en production (tsvector + GIN), index inversé en mémoire sur les autres bases (H2 des tests)
+// Implémentation choisie au démarrage par ActionSearchConfig
+public interface ActionSearchIndex {
+
+    // Ids des tâches possédées ou assignées à l'utilisateur qui correspondent à tous les mots,
+    // les plus pertinentes d'abord (à pertinence égale, les plus récentes)
+    List<Long> search(String terms, Long userId, int offset, int limit);
+
+    // Appelées après le commit de chaque écriture d'une tâche (ActionSearchListener) ;
+    // rien à faire quand la base tient l'index elle-même
+    default void index(Long actionId, String title, String textarea) {
+    }
+
+    default void remove(Long actionId) {
+    }
+}
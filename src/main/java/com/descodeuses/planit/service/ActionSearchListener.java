@@ -0,0 +1,85 @@
+package com.descodeuses.planit.service;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.descodeuses.planit.entity.ActionEntity;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// Tient l'index de recherche à jour à chaque écriture d'une tâche, quel que soit le chemin
+// (création, modification, lot...). Écouteur Hibernate enregistré au démarrage : l'entité n'en dépend pas.
+// L'index n'est modifié qu'après le commit : une transaction annulée n'y laisse aucune trace.
+@Component
+public class ActionSearchListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final ActionSearchIndex searchIndex;
+
+    public ActionSearchListener(ActionSearchIndex searchIndex, EntityManagerFactory entityManagerFactory) {
+        this.searchIndex = searchIndex;
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().requireService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof ActionEntity action) {
+            indexed(action);
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof ActionEntity action) {
+            indexed(action);
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof ActionEntity action) {
+            Long id = action.getId();
+            afterCommit(() -> searchIndex.remove(id));
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    // Texte lu au moment de l'écriture : l'entité peut encore changer avant le commit
+    private void indexed(ActionEntity action) {
+        Long id = action.getId();
+        String title = action.getTitle();
+        String textarea = action.getTextarea();
+        afterCommit(() -> searchIndex.index(id, title, textarea));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
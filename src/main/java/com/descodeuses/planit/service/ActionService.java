@@ -7,14 +7,23 @@
 package com.descodeuses.planit.service;
 
 // Imports nécessaires aux collections et types optionnels
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
@@ -26,50 +35,132 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.bind.annotation.GetMapping;
 
 // Imports de DTOs
+import com.descodeuses.planit.dto.ActionBatchOperationDTO;
+import com.descodeuses.planit.dto.ActionBatchResultDTO;
+import com.descodeuses.planit.dto.ActionChangesDTO;
 import com.descodeuses.planit.dto.ActionDTO;
+import com.descodeuses.planit.dto.ActionFilterDTO;
+import com.descodeuses.planit.dto.ActionPageDTO;
+import com.descodeuses.planit.dto.ActionSummaryDTO;
 import com.descodeuses.planit.dto.ContactDTO;
 import com.descodeuses.planit.dto.ProjetDTO;
 import com.descodeuses.planit.dto.UtilisateurDTO;
 // Imports des entités JPA
 import com.descodeuses.planit.entity.ActionEntity;
+import com.descodeuses.planit.entity.ActionTombstoneEntity;
 import com.descodeuses.planit.entity.ContactEntity;
 import com.descodeuses.planit.entity.ProjetEntity;
 import com.descodeuses.planit.entity.UtilisateurEntity;
 
+import com.descodeuses.planit.exception.BadRequestException;
+import com.descodeuses.planit.exception.VersionConflictException;
+
 // Imports des repositories (accès DB)
 import com.descodeuses.planit.repository.ActionRepository;
-import com.descodeuses.planit.repository.ContactRepository;
+import com.descodeuses.planit.repository.ActionTombstoneRepository;
+import com.descodeuses.planit.repository.CachedEntityLoader;
 import com.descodeuses.planit.repository.ProjetRepository;
-import com.descodeuses.planit.repository.UtilisateurRepository;
 
 // Import pour lever une exception si une entité n'est pas trouvée
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.transaction.Transactional;
 
 // Déclare cette classe comme un composant Spring de type Service
 @Service
 public class ActionService {
 
+    // Taille de page par défaut et maximale des listes paginées
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
+    // Longueur maximale d'une recherche plein texte
+    private static final int MAX_SEARCH_LENGTH = 200;
+
+    // Nombre maximal d'opérations d'un lot POST /api/action/batch
+    private static final int MAX_BATCH_SIZE = 500;
+
+    // Borne basse utilisée comme "curseur" de la première page (aucune échéance n'est antérieure)
+    private static final LocalDate FIRST_DUE_DATE = LocalDate.of(1, 1, 1);
+
+    // Position dans une liste paginée : dernière tâche renvoyée (échéance null = segment sans échéance)
+    private record Cursor(LocalDate dueDate, Long id) {
+    }
+
+    // Requête d'un segment de page (tâches datées ou non) à partir d'un curseur
+    private interface PageQuery {
+        List<ActionEntity> fetch(LocalDate afterDueDate, Long afterId, Pageable pageable);
+    }
+
+    // Références chargées en une requête chacune pour tout un lot d'opérations
+    private record BatchReferences(Map<Long, ActionEntity> actions, Map<Long, ContactEntity> contacts,
+            Map<Long, ProjetEntity> projets, Map<Long, UtilisateurEntity> utilisateurs) {
+
+        // Tâche du lot appartenant à l'utilisateur connecté
+        ActionEntity action(Long id) {
+            ActionEntity action = id == null ? null : actions.get(id);
+            if (action == null) {
+                throw new EntityNotFoundException("Tâche introuvable : " + id);
+            }
+            return action;
+        }
+
+        // Projet demandé (null si aucun projet n'est fourni)
+        ProjetEntity projet(Long id) {
+            if (id == null) {
+                return null;
+            }
+            ProjetEntity projet = projets.get(id);
+            if (projet == null) {
+                throw new EntityNotFoundException("Projet introuvable avec l'id : " + id);
+            }
+            return projet;
+        }
+
+        // Contacts existants parmi les IDs demandés (les IDs inconnus sont ignorés, comme en unitaire)
+        Set<ContactEntity> contacts(Set<Long> ids) {
+            Set<ContactEntity> result = new HashSet<>();
+            if (ids != null) {
+                ids.stream().map(contacts::get).filter(c -> c != null).forEach(result::add);
+            }
+            return result;
+        }
+
+        Set<UtilisateurEntity> utilisateurs(Set<Long> ids) {
+            Set<UtilisateurEntity> result = new HashSet<>();
+            if (ids != null) {
+                ids.stream().map(utilisateurs::get).filter(u -> u != null).forEach(result::add);
+            }
+            return result;
+        }
+    }
+
     // Dépendances injectées (repositories et services)
     private final ActionRepository repository;
-    private final ContactRepository contactRepository;
     private final ProjetRepository projetRepository;
-    private final UserService userService;
-
-    @Autowired
-    private final UtilisateurRepository utilisateurRepository;
+    private final CurrentUserResolver currentUser;
+    private final WatermarkService watermarks;
+    private final ActionTombstoneRepository tombstoneRepository;
+    private final ApplicationEventPublisher events;
+    private final ActionSearchIndex searchIndex;
+    private final CachedEntityLoader entities; // Contacts, projets et utilisateurs via le cache de second niveau
 
     // Constructeur avec injection des dépendances
-    public ActionService(ActionRepository repository, ContactRepository contactRepository,
-            ProjetRepository projetRepository, UtilisateurRepository utilisateurRepository, UserService userService) {
+    public ActionService(ActionRepository repository, ProjetRepository projetRepository,
+            CurrentUserResolver currentUser, WatermarkService watermarks,
+            ActionTombstoneRepository tombstoneRepository, ApplicationEventPublisher events,
+            ActionSearchIndex searchIndex, CachedEntityLoader entities) {
         this.repository = repository;
-        this.contactRepository = contactRepository;
         this.projetRepository = projetRepository;
-        this.utilisateurRepository = utilisateurRepository;
-        this.userService = userService;
+        this.currentUser = currentUser;
+        this.watermarks = watermarks;
+        this.tombstoneRepository = tombstoneRepository;
+        this.events = events;
+        this.searchIndex = searchIndex;
+        this.entities = entities;
     }
 
-    // Méthode privée pour convertir une ActionEntity en ActionDTO
-    private ActionDTO convertToDTO(ActionEntity action) {
+    // Convertit une ActionEntity en ActionDTO (visibilité package pour les benchmarks JMH)
+    ActionDTO convertToDTO(ActionEntity action) {
         // Crée un DTO à partir de l'entité de base
         ActionDTO dto = new ActionDTO(
                 action.getId(),
@@ -78,6 +169,8 @@ public class ActionService {
                 action.getDueDate(),
                 action.getTextarea(),
                 action.getPriorite());
+        dto.setVersion(action.getVersion());
+        dto.setUpdatedAt(action.getUpdatedAt());
 
         // Récupère uniquement les IDs des membres (pour formulaire)
         Set<Long> memberIds = action.getMembers().stream()
@@ -131,7 +224,7 @@ public class ActionService {
 
     // Convertit un DTO en entité (pour insertion ou update)
     private ActionEntity convertToEntity(ActionDTO actionDTO, Set<ContactEntity> members, ProjetEntity projet,
-            UtilisateurEntity utilisateur) {
+            UtilisateurEntity utilisateur, Set<UtilisateurEntity> assignedUsers) {
         ActionEntity action = new ActionEntity();
         action.setId(actionDTO.getId());
         action.setTitle(actionDTO.getTitle());
@@ -144,15 +237,111 @@ public class ActionService {
         action.setUtilisateur(utilisateur);
 
         // On associe les utilisateurs assignés à cette tâche
-        if (actionDTO.getAssignedUserIds() != null && !actionDTO.getAssignedUserIds().isEmpty()) {
-            Set<UtilisateurEntity> assignedUsers = new HashSet<>(
-                    utilisateurRepository.findAllById(actionDTO.getAssignedUserIds()));
-            action.setUtilisateursAssignes(assignedUsers);
-        }
+        action.setUtilisateursAssignes(assignedUsers);
 
         return action;
     }
 
+    // Écriture conditionnelle : refuse la modification si la version attendue (If-Match)
+    // n'est plus la version courante, en renvoyant l'état actuel de la tâche
+    private void checkVersion(ActionEntity entity, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(entity.getVersion())) {
+            throw new VersionConflictException(convertToDTO(entity), entity.getVersion());
+        }
+    }
+
+    // Reporte sur une tâche existante les champs d'un DTO (remplacement complet, comme PUT)
+    // Le projet n'est changé que si un nouveau projet est fourni
+    private void applyDTO(ActionEntity existingEntity, ActionDTO dto, Set<ContactEntity> members,
+            ProjetEntity projet, Set<UtilisateurEntity> assignedUsers) {
+        existingEntity.setTitle(dto.getTitle());
+        existingEntity.setCompleted(dto.getCompleted());
+        existingEntity.setDueDate(dto.getDueDate());
+        existingEntity.setTextarea(dto.getTextarea());
+        existingEntity.setPriorite(dto.getPriorite());
+        syncSet(existingEntity.getMembers(), members);
+        if (projet != null) {
+            existingEntity.setProjet(projet);
+        }
+        syncSet(existingEntity.getUtilisateursAssignes(), assignedUsers);
+    }
+
+    // Remplace le contenu d'une collection en place : Hibernate n'écrit dans la table de
+    // jointure que les lignes retirées ou ajoutées, au lieu de tout supprimer et réinsérer
+    private static <T> void syncSet(Set<T> current, Set<T> target) {
+        current.retainAll(target);
+        current.addAll(target);
+    }
+
+    // Même principe à partir d'une liste d'IDs : seuls les éléments absents sont chargés
+    private static <T> void syncSetByIds(Set<T> current, Set<Long> ids, Function<T, Long> idOf,
+            Function<Set<Long>, List<T>> loader) {
+        current.removeIf(element -> !ids.contains(idOf.apply(element)));
+        Set<Long> missing = new HashSet<>(ids);
+        current.forEach(element -> missing.remove(idOf.apply(element)));
+        if (!missing.isEmpty()) {
+            current.addAll(loader.apply(missing));
+        }
+    }
+
+    // Applique une modification partielle (sémantique JSON Merge Patch, RFC 7396) :
+    // seuls les champs présents sont modifiés, null efface la valeur.
+    // memberIds / assignedUserIds sont appliqués par différence sur les tables de jointure.
+    private void applyPatch(ActionEntity entity, Map<String, Object> changes) {
+        if (changes == null || changes.isEmpty()) {
+            throw new BadRequestException("Aucune modification fournie");
+        }
+        for (Map.Entry<String, Object> change : changes.entrySet()) {
+            Object value = change.getValue();
+            try {
+                switch (change.getKey()) {
+                    case "title" -> entity.setTitle((String) value);
+                    case "completed" -> entity.setCompleted(value != null && (Boolean) value);
+                    case "dueDate" -> entity.setDueDate(value == null ? null : LocalDate.parse((String) value));
+                    case "textarea" -> entity.setTextarea((String) value);
+                    case "priorite" -> entity.setPriorite(value == null ? null : ((Number) value).intValue());
+                    case "projetId" -> entity.setProjet(value == null ? null
+                            : projetRepository.findById(((Number) value).longValue())
+                                    .orElseThrow(() -> new EntityNotFoundException("Projet introuvable avec l'id : " + value)));
+                    case "memberIds" -> syncSetByIds(entity.getMembers(), toIds(value), ContactEntity::getId,
+                            ids -> entities.findAllById(ContactEntity.class, ids));
+                    case "assignedUserIds" -> syncSetByIds(entity.getUtilisateursAssignes(), toIds(value),
+                            UtilisateurEntity::getId, ids -> entities.findAllById(UtilisateurEntity.class, ids));
+                    default -> throw new BadRequestException("Champ non modifiable : " + change.getKey());
+                }
+            } catch (ClassCastException | DateTimeParseException e) {
+                throw new BadRequestException("Valeur invalide pour " + change.getKey());
+            }
+        }
+    }
+
+    // Liste JSON d'IDs (null = liste vide)
+    private static Set<Long> toIds(Object value) {
+        Set<Long> ids = new HashSet<>();
+        if (value != null) {
+            for (Object id : (List<?>) value) {
+                ids.add(((Number) id).longValue());
+            }
+        }
+        return ids;
+    }
+
+    // Convertit une liste d'actions en DTO en chargeant d'abord les collections
+    // (membres et utilisateurs assignés) en une requête chacune pour toute la liste,
+    // au lieu d'un SELECT paresseux par action lors de la conversion.
+    // Doit être appelée dans une transaction : les collections sont initialisées
+    // dans le même contexte de persistance que les actions.
+    private List<ActionDTO> convertAllToDTO(List<ActionEntity> actions) {
+        if (!actions.isEmpty()) {
+            repository.fetchMembers(actions);
+            repository.fetchUtilisateursAssignes(actions);
+        }
+
+        return actions.stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
     /*
      * // Récupère toutes les actions depuis la base de données
      * public List<ActionDTO> getAll() {
@@ -168,33 +357,60 @@ public class ActionService {
      */
 
     // Récupère toutes les actions de l'utilisateur depuis la base de données
+    // Nombre de requêtes fixe quel que soit le nombre de tâches : utilisateur,
+    // tâches (avec projet et propriétaire), membres, utilisateurs assignés
+    @Transactional
     public List<ActionDTO> getAllByUser(Authentication authentication) {
         // Récupère l'utilisateur connecté à partir de son nom d'utilisateur
-        String username = authentication.getName();
-        UtilisateurEntity utilisateur = userService.findByUsername(username);
+        UtilisateurEntity utilisateur = currentUser.resolve(authentication);
 
         // Récupère uniquement les actions qui lui appartiennent
-        List<ActionEntity> actions = repository.findByUtilisateur(utilisateur);
+        List<ActionEntity> actions = repository.findAllForListing(utilisateur);
 
         // Convertit chaque ActionEntity en ActionDTO
-        return actions.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return convertAllToDTO(actions);
+    }
+
+    // Synchronisation différentielle : tâches créées / modifiées et ids des tâches supprimées
+    // depuis le jeton "since" (numéro de modification renvoyé par l'appel précédent).
+    // Sans jeton, avec un jeton inconnu ou plus ancien que la purge des suppressions :
+    // liste complète avec reset = true (le client remplace son cache).
+    // Transaction en lecture seule (pas de flush, connexion en lecture seule) : annotation Spring,
+    // jakarta.transaction.Transactional n'a pas d'équivalent
+    @org.springframework.transaction.annotation.Transactional(readOnly = true)
+    public ActionChangesDTO getChanges(Long since, Authentication authentication) {
+        UtilisateurEntity utilisateur = currentUser.resolve(authentication);
+
+        // Jeton lu avant les données : une modification concurrente est au pire renvoyée deux fois
+        long token = watermarks.current(authentication).version();
+
+        if (since == null || since > token || since < watermarks.purgedSeq(utilisateur.getId())) {
+            return new ActionChangesDTO(token, true, convertAllToDTO(repository.findAllForListing(utilisateur)), List.of());
+        }
+
+        List<ActionDTO> updated = convertAllToDTO(repository.findChangedForListing(utilisateur, since));
+        List<Long> deleted = tombstoneRepository.findDeletedIdsSince(utilisateur.getId(), since);
+        return new ActionChangesDTO(token, false, updated, deleted);
+    }
+
+    // Version "summary" de la liste : champs affichés par la liste uniquement
+    public List<ActionSummaryDTO> getSummariesByUser(Authentication authentication) {
+        UtilisateurEntity utilisateur = currentUser.resolve(authentication);
+        return repository.findSummariesByUtilisateur(utilisateur);
     }
 
     // Récupère une seule action par son ID seulement pour l'utilisateur à l'origine et l'utilisateur assigné
     public ActionDTO getActionById(Long id, Authentication authentication) {
-        String username = authentication.getName();
-        UtilisateurEntity currentUser = userService.findByUsername(username);
+        UtilisateurEntity utilisateur = currentUser.resolve(authentication);
 
         // Récupération de la tâche
         ActionEntity action = repository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Tâche introuvable"));
 
         // Vérifie si le user est propriétaire OU assigné
-        boolean isOwner = action.getUtilisateur().getId().equals(currentUser.getId());
+        boolean isOwner = action.getUtilisateur().getId().equals(utilisateur.getId());
         boolean isAssigned = action.getUtilisateursAssignes().stream()
-                .anyMatch(u -> u.getId().equals(currentUser.getId()));
+                .anyMatch(u -> u.getId().equals(utilisateur.getId()));
 
         if (!isOwner && !isAssigned) {
             throw new SecurityException("Accès refusé : vous n’êtes pas autorisé à consulter cette tâche.");
@@ -218,6 +434,7 @@ public class ActionService {
      */
 
     // Crée une nouvelle action à partir d’un DTO
+    @Transactional
     public ActionDTO create(ActionDTO dto, Authentication authentication) {
         ProjetEntity projet = null;
 
@@ -231,12 +448,11 @@ public class ActionService {
         // Récupère tous les contacts dont les IDs sont dans le DTO
         Set<ContactEntity> contacts = new HashSet<>();
         if (dto.getMemberIds() != null && !dto.getMemberIds().isEmpty()) {
-            contacts.addAll(contactRepository.findAllById(dto.getMemberIds()));
+            contacts.addAll(entities.findAllById(ContactEntity.class, dto.getMemberIds()));
         }
 
         // Récupère l’utilisateur authentifié via Spring Security
-        String username = authentication.getName();
-        UtilisateurEntity utilisateur = userService.findByUsername(username);
+        UtilisateurEntity utilisateur = currentUser.resolve(authentication);
 
         /*
          * UserDetails userDetails =
@@ -247,64 +463,101 @@ public class ActionService {
          * .orElseThrow(() -> new UsernameNotFoundException("User not found"));
          */
 
+        // Récupère les utilisateurs assignés à cette tâche
+        Set<UtilisateurEntity> assignedUsers = new HashSet<>();
+        if (dto.getAssignedUserIds() != null && !dto.getAssignedUserIds().isEmpty()) {
+            assignedUsers.addAll(entities.findAllById(UtilisateurEntity.class, dto.getAssignedUserIds()));
+        }
+
         // Convertit les données en entité, puis sauvegarde
-        ActionEntity entity = convertToEntity(dto, contacts, projet, utilisateur);
+        ActionEntity entity = convertToEntity(dto, contacts, projet, utilisateur, assignedUsers);
         // todo.setUtilisateur(user);
+        // Numéro de modification (ETag des listes, synchronisation) avant l'INSERT
+        entity.setChangeSeq(watermarks.next(utilisateur));
         ActionEntity savedEntity = repository.save(entity);
 
-        return convertToDTO(savedEntity); // Retourne l’action créée
+        ActionDTO created = convertToDTO(savedEntity);
+        publish(ActionChangeEvent.Type.CREATED, savedEntity, created, Set.of());
+        return created; // Retourne l’action créée
     }
 
     // Met à jour une action existante
-    public ActionDTO update(Long id, ActionDTO dto, Authentication authentication) {
+    // expectedVersion (If-Match, optionnel) : refuse l'écriture si la tâche a changé entre-temps
+    @Transactional
+    public ActionDTO update(Long id, ActionDTO dto, Long expectedVersion, Authentication authentication) {
         // Récupérer utilisateur connecté et l’assigner
         String username = authentication.getName();
 
         // Recherche sécurisée : uniquement si la tâche appartient à l'utilisateur connecté
         ActionEntity existingEntity = repository.findByIdAndUtilisateurUsername(id, username)
                 .orElseThrow(() -> new SecurityException("Vous n'êtes pas autorisé à modifier cette tâche."));
-
-        // Met à jour les champs modifiables
-        existingEntity.setTitle(dto.getTitle());
-        existingEntity.setCompleted(dto.getCompleted());
-        existingEntity.setDueDate(dto.getDueDate());
-        existingEntity.setTextarea(dto.getTextarea());
-        existingEntity.setPriorite(dto.getPriorite());
+        checkVersion(existingEntity, expectedVersion);
+        // Numéro de modification pris avant les changements (voir patch)
+        long changeSeq = watermarks.next(existingEntity.getUtilisateur());
+        Set<Long> previousAssignees = assigneeIds(existingEntity);
 
         // Met à jour les membres s’il y en a
         Set<ContactEntity> contacts = new HashSet<>();
         if (dto.getMemberIds() != null) {
-            contacts.addAll(contactRepository.findAllById(dto.getMemberIds()));
+            contacts.addAll(entities.findAllById(ContactEntity.class, dto.getMemberIds()));
         }
-        existingEntity.setMembers(contacts);
 
         // Met à jour le projet si un nouvel ID est fourni
+        ProjetEntity projet = null;
         if (dto.getProjetId() != null) {
-            ProjetEntity projet = projetRepository.findById(dto.getProjetId())
+            projet = projetRepository.findById(dto.getProjetId())
                     .orElseThrow(
                             () -> new EntityNotFoundException("Tache introuvable avec l'id : " + dto.getProjetId()));
-            existingEntity.setProjet(projet);
         }
 
-        // Met à jour les utilisateurs assignés
+        // Met à jour les utilisateurs assignés (vide si rien envoyé)
+        Set<UtilisateurEntity> assignedUsers = new HashSet<>();
         if (dto.getAssignedUserIds() != null) {
-            Set<UtilisateurEntity> assignedUsers = new HashSet<>(
-                    utilisateurRepository.findAllById(dto.getAssignedUserIds()));
-            existingEntity.setUtilisateursAssignes(assignedUsers);
-        } else {
-            existingEntity.setUtilisateursAssignes(new HashSet<>()); // vide si rien envoyé
+            assignedUsers.addAll(entities.findAllById(UtilisateurEntity.class, dto.getAssignedUserIds()));
         }
 
+        // Met à jour les champs modifiables
+        applyDTO(existingEntity, dto, contacts, projet, assignedUsers);
+
         // Récupérer utilisateur connecté et l’assigner
         // String username = authentication.getName();
         // UtilisateurEntity utilisateur = userService.findByUsername(username);
         // existingEntity.setUtilisateur(utilisateur);
 
-        // Enregistre l'entité modifiée
-        ActionEntity updatedEntity = repository.save(existingEntity);
-        return convertToDTO(updatedEntity);
+        // Pas de save() : l'entité est gérée, Hibernate n'écrit que les colonnes
+        // modifiées (dirty checking + @DynamicUpdate). Le flush incrémente la version
+        // avant la conversion pour que le DTO porte le nouvel ETag.
+        existingEntity.setChangeSeq(changeSeq);
+        repository.flush();
+        ActionDTO updated = convertToDTO(existingEntity);
+        publish(ActionChangeEvent.Type.UPDATED, existingEntity, updated, previousAssignees);
+        return updated;
     }
 
+    // Modifie partiellement une action existante (PATCH, JSON Merge Patch)
+    // - un seul UPDATE limité aux colonnes modifiées (@DynamicUpdate)
+    // - membres et assignés : seules les lignes ajoutées / retirées sont écrites
+    @Transactional
+    public ActionDTO patch(Long id, Map<String, Object> changes, Long expectedVersion,
+            Authentication authentication) {
+        // Recherche sécurisée : uniquement si la tâche appartient à l'utilisateur connecté
+        ActionEntity existingEntity = repository.findByIdAndUtilisateurUsername(id, authentication.getName())
+                .orElseThrow(() -> new SecurityException("Vous n'êtes pas autorisé à modifier cette tâche."));
+        checkVersion(existingEntity, expectedVersion);
+
+        // Numéro de modification pris avant les changements : l'incrément (requête de mise à
+        // jour) déclencherait sinon un flush, et la tâche serait écrite deux fois
+        long changeSeq = watermarks.next(existingEntity.getUtilisateur());
+        Set<Long> previousAssignees = assigneeIds(existingEntity);
+        applyPatch(existingEntity, changes);
+        existingEntity.setChangeSeq(changeSeq);
+        repository.flush();
+        ActionDTO updated = convertToDTO(existingEntity);
+        publish(ActionChangeEvent.Type.UPDATED, existingEntity, updated, previousAssignees);
+        return updated;
+    }
+
+    @Transactional
     public void delete(Long id, Authentication authentication) {
         String username = authentication.getName();
 
@@ -312,7 +565,168 @@ public class ActionService {
         ActionEntity entity = repository.findByIdAndUtilisateurUsername(id, username)
                 .orElseThrow(() -> new SecurityException("Vous n'êtes pas autorisé à supprimer cette tâche."));
 
+        // Trace de suppression pour les clients qui synchronisent par différence
+        tombstone(entity, watermarks.next(entity.getUtilisateur()));
         repository.delete(entity);
+        publish(ActionChangeEvent.Type.DELETED, entity, null, Set.of());
+    }
+
+    // Publie l'écriture pour les flux SSE (diffusée après le commit) : propriétaire et
+    // assignés, y compris ceux qui viennent d'être retirés de la tâche (ils ne reçoivent que son id)
+    private void publish(ActionChangeEvent.Type type, ActionEntity entity, ActionDTO dto, Set<Long> previousAssignees) {
+        Set<Long> recipients = new HashSet<>(previousAssignees);
+        recipients.addAll(assigneeIds(entity));
+        recipients.add(entity.getUtilisateur().getId());
+        events.publishEvent(new ActionChangeEvent(type, entity.getId(), dto, recipients));
+    }
+
+    private Set<Long> assigneeIds(ActionEntity entity) {
+        return entity.getUtilisateursAssignes().stream().map(UtilisateurEntity::getId).collect(Collectors.toSet());
+    }
+
+    // Applique un lot d'opérations (create / update / patch / delete) dans une seule transaction
+    // - Les tâches visées, contacts, projets et utilisateurs assignés sont chargés en une requête chacun
+    // - Les INSERT / UPDATE / DELETE sont envoyés en lots JDBC au commit (ids issus d'une séquence)
+    // - Une opération invalide (tâche introuvable, champ inconnu...) est signalée dans son résultat
+    //   sans empêcher les autres
+    @Transactional
+    public List<ActionBatchResultDTO> batch(List<ActionBatchOperationDTO> operations, Authentication authentication) {
+        if (operations == null || operations.isEmpty()) {
+            throw new BadRequestException("Aucune opération fournie");
+        }
+        if (operations.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("Un lot est limité à " + MAX_BATCH_SIZE + " opérations");
+        }
+
+        UtilisateurEntity utilisateur = currentUser.resolve(authentication);
+
+        // Regroupe les IDs référencés par l'ensemble du lot
+        Set<Long> actionIds = new HashSet<>();
+        Set<Long> contactIds = new HashSet<>();
+        Set<Long> projetIds = new HashSet<>();
+        Set<Long> utilisateurIds = new HashSet<>();
+        for (ActionBatchOperationDTO operation : operations) {
+            if (operation == null) {
+                continue;
+            }
+            if (operation.getId() != null) {
+                actionIds.add(operation.getId());
+            }
+            ActionDTO dto = operation.getAction();
+            if (dto != null) {
+                if (dto.getMemberIds() != null) {
+                    contactIds.addAll(dto.getMemberIds());
+                }
+                if (dto.getProjetId() != null) {
+                    projetIds.add(dto.getProjetId());
+                }
+                if (dto.getAssignedUserIds() != null) {
+                    utilisateurIds.addAll(dto.getAssignedUserIds());
+                }
+            }
+        }
+
+        // Seules les tâches de l'utilisateur connecté sont chargées : les autres seront "introuvables"
+        List<ActionEntity> actions = actionIds.isEmpty() ? List.of()
+                : repository.findByIdInAndUtilisateur(actionIds, utilisateur);
+        if (!actions.isEmpty()) {
+            repository.fetchMembers(actions);
+            repository.fetchUtilisateursAssignes(actions);
+        }
+        BatchReferences references = new BatchReferences(
+                actions.stream().collect(Collectors.toMap(ActionEntity::getId, a -> a)),
+                entities.findAllById(ContactEntity.class, contactIds).stream()
+                        .collect(Collectors.toMap(ContactEntity::getId, c -> c)),
+                entities.findAllById(ProjetEntity.class, projetIds).stream()
+                        .collect(Collectors.toMap(ProjetEntity::getId, p -> p)),
+                entities.findAllById(UtilisateurEntity.class, utilisateurIds).stream()
+                        .collect(Collectors.toMap(UtilisateurEntity::getId, u -> u)));
+
+        // Un seul numéro de modification pour tout le lot
+        long changeSeq = watermarks.next(utilisateur);
+        Set<Long> recipients = new HashSet<>();
+        actions.forEach(action -> recipients.addAll(assigneeIds(action)));
+
+        List<ActionBatchResultDTO> results = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            results.add(applyOperation(i, operations.get(i), utilisateur, references, changeSeq));
+        }
+
+        // Un seul événement SSE pour tout le lot (pas des centaines dans les files des clients) :
+        // les destinataires rechargent via /changes ou /assigned-to-me
+        results.stream().filter(r -> r.getAction() != null && r.getAction().getAssignedUserIds() != null)
+                .forEach(r -> recipients.addAll(r.getAction().getAssignedUserIds()));
+        recipients.add(utilisateur.getId());
+        events.publishEvent(new ActionChangeEvent(ActionChangeEvent.Type.SYNC, null, null, recipients));
+        return results;
+    }
+
+    // Exécute une opération du lot et construit son résultat
+    private ActionBatchResultDTO applyOperation(int index, ActionBatchOperationDTO operation,
+            UtilisateurEntity utilisateur, BatchReferences references, long changeSeq) {
+        String op = operation == null ? null : operation.getOp();
+        Long id = operation == null ? null : operation.getId();
+
+        try {
+            switch (op == null ? "" : op) {
+                case "create" -> {
+                    ActionDTO dto = requireAction(operation);
+                    ActionEntity entity = convertToEntity(dto, references.contacts(dto.getMemberIds()),
+                            references.projet(dto.getProjetId()), utilisateur,
+                            references.utilisateurs(dto.getAssignedUserIds()));
+                    entity.setId(null);
+                    entity.setChangeSeq(changeSeq);
+                    ActionEntity saved = repository.save(entity);
+                    return new ActionBatchResultDTO(index, op, saved.getId(), HttpStatus.CREATED.value(), null,
+                            convertToDTO(saved));
+                }
+                case "update" -> {
+                    ActionDTO dto = requireAction(operation);
+                    ActionEntity entity = references.action(id);
+                    checkVersion(entity, operation.getVersion());
+                    applyDTO(entity, dto, references.contacts(dto.getMemberIds()),
+                            references.projet(dto.getProjetId()),
+                            references.utilisateurs(dto.getAssignedUserIds()));
+                    entity.setChangeSeq(changeSeq);
+                    return new ActionBatchResultDTO(index, op, id, HttpStatus.OK.value(), null, convertToDTO(entity));
+                }
+                case "patch" -> {
+                    ActionEntity entity = references.action(id);
+                    checkVersion(entity, operation.getVersion());
+                    applyPatch(entity, operation.getChanges());
+                    entity.setChangeSeq(changeSeq);
+                    return new ActionBatchResultDTO(index, op, id, HttpStatus.OK.value(), null, convertToDTO(entity));
+                }
+                case "delete" -> {
+                    ActionEntity entity = references.action(id);
+                    checkVersion(entity, operation.getVersion());
+                    tombstone(entity, changeSeq);
+                    repository.delete(entity);
+                    references.actions().remove(id);
+                    return new ActionBatchResultDTO(index, op, id, HttpStatus.NO_CONTENT.value(), null, null);
+                }
+                default -> throw new BadRequestException("Opération inconnue : " + op);
+            }
+        } catch (BadRequestException e) {
+            return new ActionBatchResultDTO(index, op, id, HttpStatus.BAD_REQUEST.value(), e.getMessage(), null);
+        } catch (EntityNotFoundException e) {
+            return new ActionBatchResultDTO(index, op, id, HttpStatus.NOT_FOUND.value(), e.getMessage(), null);
+        } catch (VersionConflictException e) {
+            return new ActionBatchResultDTO(index, op, id, HttpStatus.CONFLICT.value(), e.getMessage(),
+                    (ActionDTO) e.getCurrent());
+        }
+    }
+
+    private void tombstone(ActionEntity entity, long changeSeq) {
+        tombstoneRepository.save(new ActionTombstoneEntity(entity.getId(), entity.getUtilisateur().getId(),
+                changeSeq, Instant.now()));
+    }
+
+    private ActionDTO requireAction(ActionBatchOperationDTO operation) {
+        if (operation.getAction() == null) {
+            throw new BadRequestException("Champ action obligatoire pour " + operation.getOp());
+        }
+        return operation.getAction();
     }
 
     /*
@@ -326,14 +740,153 @@ public class ActionService {
      * }
      */
 
+    // Tâches où l'utilisateur connecté est assigné, en un nombre de requêtes fixe comme getAllByUser
+    @Transactional
     public List<ActionDTO> getAssignedToMe(Authentication authentication) {
-        String username = authentication.getName();
-        UtilisateurEntity utilisateur = userService.findByUsername(username);
+        UtilisateurEntity utilisateur = currentUser.resolve(authentication);
 
-        List<ActionEntity> actions = repository.findByUtilisateursAssignesContaining(utilisateur);
+        List<ActionEntity> actions = repository.findAssignedForListing(utilisateur);
 
-        return actions.stream()
-                .map(this::convertToDTO)
-                .toList();
+        return convertAllToDTO(actions);
+    }
+
+    // Version "summary" des tâches où l'utilisateur connecté est assigné
+    public List<ActionSummaryDTO> getAssignedToMeSummaries(Authentication authentication) {
+        UtilisateurEntity utilisateur = currentUser.resolve(authentication);
+        return repository.findSummariesByUtilisateurAssigne(utilisateur);
+    }
+
+    // Page de tâches de l'utilisateur connecté, triée par échéance puis id
+    @Transactional
+    public ActionPageDTO getPageByUser(Authentication authentication, ActionFilterDTO filter, String cursor,
+            Integer limit) {
+        UtilisateurEntity utilisateur = currentUser.resolve(authentication);
+
+        return buildPage(filter, cursor, limit,
+                (afterDueDate, afterId, pageable) -> repository.findDatedPageByUtilisateur(utilisateur,
+                        afterDueDate, afterId, filter.getCompleted(), filter.getPriorite(), filter.getProjetId(),
+                        filter.getDueFrom(), filter.getDueTo(), pageable),
+                (afterDueDate, afterId, pageable) -> repository.findUndatedPageByUtilisateur(utilisateur,
+                        afterId, filter.getCompleted(), filter.getPriorite(), filter.getProjetId(),
+                        filter.getDueFrom(), filter.getDueTo(), pageable));
+    }
+
+    // Page de tâches où l'utilisateur connecté est assigné
+    @Transactional
+    public ActionPageDTO getAssignedToMePage(Authentication authentication, ActionFilterDTO filter, String cursor,
+            Integer limit) {
+        UtilisateurEntity utilisateur = currentUser.resolve(authentication);
+
+        return buildPage(filter, cursor, limit,
+                (afterDueDate, afterId, pageable) -> repository.findDatedPageByUtilisateurAssigne(utilisateur,
+                        afterDueDate, afterId, filter.getCompleted(), filter.getPriorite(), filter.getProjetId(),
+                        filter.getDueFrom(), filter.getDueTo(), pageable),
+                (afterDueDate, afterId, pageable) -> repository.findUndatedPageByUtilisateurAssigne(utilisateur,
+                        afterId, filter.getCompleted(), filter.getPriorite(), filter.getProjetId(),
+                        filter.getDueFrom(), filter.getDueTo(), pageable));
+    }
+
+    // Recherche plein texte dans le titre et la description des tâches possédées ou assignées,
+    // par pertinence ; le curseur est la position du prochain résultat (opaque pour le client)
+    @Transactional
+    public ActionPageDTO search(String terms, String cursor, Integer limit, Authentication authentication) {
+        if (terms == null || terms.isBlank()) {
+            throw new BadRequestException("Le paramètre q est obligatoire");
+        }
+        if (terms.length() > MAX_SEARCH_LENGTH) {
+            throw new BadRequestException("Recherche trop longue (" + MAX_SEARCH_LENGTH + " caractères max)");
+        }
+        UtilisateurEntity utilisateur = currentUser.resolve(authentication);
+        int size = limit == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        int offset = decodeOffset(cursor);
+
+        List<Long> ids = searchIndex.search(terms.trim(), utilisateur.getId(), offset, size + 1);
+        boolean hasNext = ids.size() > size;
+        List<Long> pageIds = hasNext ? ids.subList(0, size) : ids;
+        if (pageIds.isEmpty()) {
+            return new ActionPageDTO(List.of(), null);
+        }
+
+        // Rechargées en une requête puis remises dans l'ordre de pertinence
+        Map<Long, ActionEntity> byId = repository.findForListingByIdIn(pageIds).stream()
+                .collect(Collectors.toMap(ActionEntity::getId, Function.identity()));
+        List<ActionEntity> page = pageIds.stream().map(byId::get).filter(a -> a != null).toList();
+        String nextCursor = hasNext ? encodeOffset(offset + size) : null;
+        return new ActionPageDTO(convertAllToDTO(page), nextCursor);
+    }
+
+    private String encodeOffset(int offset) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("search:" + offset).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private int decodeOffset(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!raw.startsWith("search:")) {
+                throw new IllegalArgumentException(raw);
+            }
+            int offset = Integer.parseInt(raw.substring("search:".length()));
+            if (offset < 0) {
+                throw new IllegalArgumentException(raw);
+            }
+            return offset;
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Curseur de pagination invalide");
+        }
+    }
+
+    // Construit une page : d'abord les tâches datées après le curseur, puis, si la page
+    // n'est pas pleine, les tâches sans échéance. Une ligne de plus que la taille demandée
+    // est lue pour savoir s'il existe une page suivante.
+    private ActionPageDTO buildPage(ActionFilterDTO filter, String cursor, Integer limit, PageQuery datedQuery,
+            PageQuery undatedQuery) {
+        int size = limit == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        Cursor after = decodeCursor(cursor);
+
+        List<ActionEntity> actions = new ArrayList<>();
+        if (after == null || after.dueDate() != null) {
+            LocalDate afterDueDate = after == null ? FIRST_DUE_DATE : after.dueDate();
+            Long afterId = after == null ? 0L : after.id();
+            actions.addAll(datedQuery.fetch(afterDueDate, afterId, PageRequest.of(0, size + 1)));
+        }
+
+        // Un filtre sur l'échéance exclut d'office les tâches sans échéance
+        boolean undatedIncluded = filter.getDueFrom() == null && filter.getDueTo() == null;
+        if (actions.size() <= size && undatedIncluded) {
+            Long afterId = after != null && after.dueDate() == null ? after.id() : 0L;
+            actions.addAll(undatedQuery.fetch(null, afterId, PageRequest.of(0, size + 1 - actions.size())));
+        }
+
+        boolean hasNext = actions.size() > size;
+        List<ActionEntity> page = hasNext ? actions.subList(0, size) : actions;
+        String nextCursor = hasNext ? encodeCursor(page.get(page.size() - 1)) : null;
+
+        return new ActionPageDTO(convertAllToDTO(page), nextCursor);
+    }
+
+    // Le curseur est opaque pour le client : "échéance:id" encodé en Base64 (URL)
+    private String encodeCursor(ActionEntity last) {
+        String dueDate = last.getDueDate() == null ? "" : last.getDueDate().toString();
+        String raw = dueDate + ":" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Cursor decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(':');
+            String dueDate = raw.substring(0, separator);
+            Long id = Long.valueOf(raw.substring(separator + 1));
+            return new Cursor(dueDate.isEmpty() ? null : LocalDate.parse(dueDate), id);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new BadRequestException("Curseur de pagination invalide");
+        }
     }
 }
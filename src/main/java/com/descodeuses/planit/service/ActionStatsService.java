@@ -0,0 +1,95 @@
+// Compteurs du tableau de bord (GET /api/action/stats), sans télécharger les tâches :
+// - Calculés par une requête GROUP BY (quelques dizaines de lignes au plus, quel que soit le nombre de tâches)
+// - Gardés en cache par utilisateur avec le compteur de modifications (watermark) et le jour du calcul :
+//   toute écriture sur ses tâches (ActionService, mais aussi projet renommé, batch...) fait avancer
+//   le compteur et invalide l'entrée ; le changement de jour aussi (tranches d'échéance)
+// - Le compteur est lu avant les données : une entrée peut être plus récente que sa version, jamais plus ancienne
+
+package com.descodeuses.planit.service;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.descodeuses.planit.dto.ActionStatsDTO;
+import com.descodeuses.planit.dto.ActionStatsDTO.PrioriteCounts;
+import com.descodeuses.planit.dto.ActionStatsDTO.ProjetCounts;
+import com.descodeuses.planit.repository.ActionRepository;
+import com.descodeuses.planit.repository.ActionRepository.StatsRow;
+import com.descodeuses.planit.service.WatermarkService.Watermark;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+@Service
+public class ActionStatsService {
+
+    // Tranches d'échéance, dans l'ordre d'affichage
+    private static final List<String> ECHEANCES = List.of("overdue", "today", "week", "later", "none");
+
+    private record CachedStats(long version, LocalDate day, ActionStatsDTO stats) {
+    }
+
+    private final ActionRepository repository;
+    private final Cache<Long, CachedStats> cache;
+
+    public ActionStatsService(ActionRepository repository, MeterRegistry registry,
+            @Value("${planit.stats.cache.max-size:10000}") long maxSize,
+            @Value("${planit.stats.cache.expire-after-access-minutes:60}") long expireMinutes) {
+        this.repository = repository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(expireMinutes, TimeUnit.MINUTES)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, "planit.stats");
+    }
+
+    public ActionStatsDTO getStats(Watermark watermark, LocalDate today) {
+        CachedStats cached = cache.getIfPresent(watermark.userId());
+        if (cached != null && cached.version() == watermark.version() && cached.day().equals(today)) {
+            return cached.stats();
+        }
+        ActionStatsDTO stats = compute(watermark.userId(), today);
+        cache.put(watermark.userId(), new CachedStats(watermark.version(), today, stats));
+        return stats;
+    }
+
+    private ActionStatsDTO compute(Long userId, LocalDate today) {
+        List<StatsRow> rows = repository.countStats(userId, today, today.plusDays(7));
+
+        ActionStatsDTO stats = new ActionStatsDTO();
+        // Clés null (sans projet / sans priorité) en dernier
+        Map<Long, ProjetCounts> byProjet = new TreeMap<>(Comparator.nullsLast(Comparator.naturalOrder()));
+        Map<Integer, PrioriteCounts> byPriorite = new TreeMap<>(Comparator.nullsLast(Comparator.naturalOrder()));
+        Map<String, Long> openByEcheance = stats.getOpenByEcheance();
+        ECHEANCES.forEach(echeance -> openByEcheance.put(echeance, 0L));
+
+        for (StatsRow row : rows) {
+            long count = row.getTotal();
+            boolean completed = Boolean.TRUE.equals(row.getCompleted());
+            boolean overdue = "overdue".equals(row.getEcheance());
+
+            stats.getTotals().add(count, completed, overdue);
+            byProjet.computeIfAbsent(row.getProjetId(), id -> new ProjetCounts(id, row.getProjetTitle()))
+                    .add(count, completed, overdue);
+            byPriorite.computeIfAbsent(row.getPriorite(), PrioriteCounts::new)
+                    .add(count, completed, overdue);
+            if (!completed) {
+                openByEcheance.merge(row.getEcheance(), count, Long::sum);
+            }
+        }
+
+        stats.getByProjet().addAll(byProjet.values());
+        stats.getByPriorite().addAll(byPriorite.values());
+        return stats;
+    }
+}
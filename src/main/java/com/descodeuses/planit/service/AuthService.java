@@ -1,57 +1,95 @@
 // Service qui gère la logique d’authentification
-// - utilise UserDetailsServiceImpl pour charger les utilisateurs
-// - valide les identifiants via AuthenticationManager
+// - valide les identifiants via AuthenticationManager (une seule vérification BCrypt par login,
+//   utilisateur lu via UserDetailsServiceImpl ou le cache CaffeineUserCache)
 // - gère la génération du JWT
+// - exécute les logins sur un pool dédié et borné : BCrypt est coûteux en CPU, un afflux de connexions
+//   ne doit pas priver les autres requêtes de threads ; pool et file pleins = refus immédiat (503)
 
 package com.descodeuses.planit.service;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
-import com.descodeuses.planit.entity.UtilisateurEntity;
-import com.descodeuses.planit.repository.UtilisateurRepository;
+import com.descodeuses.planit.dto.AuthResponse;
 import com.descodeuses.planit.security.JwtUtil;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+
 // Indique que cette classe est un service Spring (logique métier)
 @Service
 public class AuthService {
 
     // Dépendances injectées
-    private final UtilisateurRepository utilisateurRepository; // Accès aux utilisateurs (BDD)
-    private final PasswordEncoder passwordEncoder;             // Encode / vérifie les mots de passe
     private final AuthenticationManager authenticationManager; // Valide l’authentification
     private final JwtUtil jwtUtil;                             // Génère et valide les JWT
-    private final UserDetailsService userDetailsService;       // Charge les infos utilisateur (implémentation Spring Security)
+    private final ExecutorService loginExecutor;               // Pool borné réservé aux logins
+    private final Counter rejected;
 
     // Constructeur avec injection des dépendances
-    public AuthService(UtilisateurRepository utilisateurRepository, PasswordEncoder passwordEncoder,
-                       AuthenticationManager authenticationManager, JwtUtil jwtUtil,
-                       UserDetailsService userDetailsService) {
-        this.utilisateurRepository = utilisateurRepository;
-        this.passwordEncoder = passwordEncoder;
+    public AuthService(AuthenticationManager authenticationManager, JwtUtil jwtUtil, MeterRegistry registry,
+                       @Value("${planit.login.threads:0}") int threads,
+                       @Value("${planit.login.queue-capacity:100}") int queueCapacity) {
         this.authenticationManager = authenticationManager;
         this.jwtUtil = jwtUtil;
-        this.userDetailsService = userDetailsService;
+
+        // 0 = un thread par cœur : au-delà, les vérifications BCrypt ne vont pas plus vite
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(size, size, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), Thread.ofPlatform().name("login-", 1).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        // Taille de la file, threads actifs, durée d'exécution et d'attente (executor.* avec name=planit.login)
+        this.loginExecutor = ExecutorServiceMetrics.monitor(registry, executor, "planit.login");
+        this.rejected = Counter.builder("planit.login.rejected")
+                .description("Connexions refusées car le pool de login est saturé")
+                .register(registry);
     }
 
-    // Méthode de connexion
-    // 1. Vérifie les identifiants via AuthenticationManager
-    // 2. Charge l’utilisateur via UserDetailsService
-    // 3. Génère un JWT à partir des infos de l’utilisateur
-    public String login(String username, String password) {
-        // Étape 1 : authentifie l’utilisateur (exception si identifiants invalides)
-        authenticationManager.authenticate(
+    // Méthode de connexion, exécutée sur le pool de login
+    // 1. Vérifie les identifiants via AuthenticationManager (exception si invalides)
+    // 2. Génère un JWT à partir de l'utilisateur authentifié
+    // RejectedExecutionException (levée tout de suite) si le pool et sa file sont pleins
+    public CompletableFuture<AuthResponse> login(String username, String password) {
+        try {
+            return CompletableFuture.supplyAsync(() -> authenticate(username, password), loginExecutor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    private AuthResponse authenticate(String username, String password) {
+        // Étape 1 : authentifie l’utilisateur, le principal retourné porte son id et ses rôles
+        Authentication auth = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(username, password));
+        UserDetails userDetails = (UserDetails) auth.getPrincipal();
 
-        // Étape 2 : charge les détails de l’utilisateur
-        final UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        // Étape 2 : rôle affiché par le front (le premier trouvé)
+        String role = userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .findFirst().orElse("");
 
         // Étape 3 : génère et retourne le token JWT
-        return jwtUtil.generateToken(userDetails);
+        return new AuthResponse(jwtUtil.generateToken(userDetails), role);
     }
 
+    @PreDestroy
+    void shutdown() {
+        loginExecutor.shutdownNow();
+    }
 }
@@ -14,31 +14,43 @@ import org.springframework.stereotype.Service;
 import com.descodeuses.planit.dto.ContactDTO;
 import com.descodeuses.planit.entity.ContactEntity;
 import com.descodeuses.planit.entity.UtilisateurEntity;
+import com.descodeuses.planit.exception.VersionConflictException;
+import com.descodeuses.planit.repository.ActionRepository;
 import com.descodeuses.planit.repository.ContactRepository;
 
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.transaction.Transactional;
 
 // Indique que cette classe est un service Spring (logique métier)
 @Service
 public class ContactService {
 
     private final ContactRepository repository; // Accès à la base de données des contacts
-    private final UserService userService;      // Service pour récupérer l’utilisateur connecté
+    private final CurrentUserResolver currentUser; // Résout l’utilisateur connecté (une fois par requête)
+    private final WatermarkService watermarks; // Compteur de modifications (ETag des listes)
+    private final ActionRepository actionRepository; // Tâches qui affichent le contact
+    private final TypeAheadService typeAhead; // Index de saisie semi-automatique
 
     // Constructeur avec injection des dépendances
-    public ContactService(ContactRepository repository, UserService userService) {
+    public ContactService(ContactRepository repository, CurrentUserResolver currentUser,
+            WatermarkService watermarks, ActionRepository actionRepository, TypeAheadService typeAhead) {
         this.repository = repository;
-        this.userService = userService;
+        this.currentUser = currentUser;
+        this.watermarks = watermarks;
+        this.actionRepository = actionRepository;
+        this.typeAhead = typeAhead;
     }
 
     // Conversion d’une entité Contact en DTO (pour exposer côté API)
     private ContactDTO convertToDTO(ContactEntity contact) {
-        return new ContactDTO(
+        ContactDTO dto = new ContactDTO(
                 contact.getId(),
                 contact.getNom(),
                 contact.getPrenom(),
                 contact.getEmail(),
                 contact.getTel());
+        dto.setVersion(contact.getVersion());
+        return dto;
     }
 
     // Conversion d’un DTO en entité Contact (pour sauvegarde en BDD)
@@ -55,8 +67,7 @@ public class ContactService {
 
     // Récupérer tous les contacts de l’utilisateur connecté
     public List<ContactDTO> getAllByUser(Authentication authentication) {
-        String username = authentication.getName(); // récupère le username de l’utilisateur connecté
-        UtilisateurEntity utilisateur = userService.findByUsername(username);
+        UtilisateurEntity utilisateur = currentUser.resolve(authentication);
 
         List<ContactEntity> contacts = repository.findByUtilisateur(utilisateur);
 
@@ -70,8 +81,7 @@ public class ContactService {
 
     // Récupérer un contact par son ID (uniquement si c’est bien celui de l’utilisateur connecté)
     public ContactDTO getById(Long id, Authentication authentication) {
-        String username = authentication.getName();
-        UtilisateurEntity utilisateur = userService.findByUsername(username);
+        UtilisateurEntity utilisateur = currentUser.resolve(authentication);
 
         ContactEntity contact = repository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Contact non trouvé avec id: " + id));
@@ -85,19 +95,23 @@ public class ContactService {
     }
 
     // Créer un nouveau contact pour l’utilisateur connecté
+    @Transactional
     public ContactDTO create(ContactDTO contactDTO, Authentication authentication) {
-        String username = authentication.getName();
-        UtilisateurEntity utilisateur = userService.findByUsername(username);
+        UtilisateurEntity utilisateur = currentUser.resolve(authentication);
 
         ContactEntity contact = convertToEntity(contactDTO, utilisateur);
         ContactEntity savedContact = repository.save(contact);
-        return convertToDTO(savedContact);
+        watermarks.touch(utilisateur);
+        ContactDTO saved = convertToDTO(savedContact);
+        typeAhead.contactSaved(utilisateur.getId(), saved);
+        return saved;
     }
 
     // Mettre à jour un contact existant (seulement si c’est celui de l’utilisateur connecté)
-    public ContactDTO update(Long id, ContactDTO contactDTO, Authentication authentication) {
-        String username = authentication.getName();
-        UtilisateurEntity utilisateur = userService.findByUsername(username);
+    // expectedVersion (If-Match, optionnel) : refuse l'écriture si le contact a changé entre-temps
+    @Transactional
+    public ContactDTO update(Long id, ContactDTO contactDTO, Long expectedVersion, Authentication authentication) {
+        UtilisateurEntity utilisateur = currentUser.resolve(authentication);
 
         ContactEntity existingContact = repository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Contact non trouvé avec id: " + id));
@@ -106,6 +120,9 @@ public class ContactService {
         if (!existingContact.getUtilisateur().getId().equals(utilisateur.getId())) {
             throw new EntityNotFoundException("Contact non trouvé pour cet utilisateur");
         }
+        if (expectedVersion != null && !expectedVersion.equals(existingContact.getVersion())) {
+            throw new VersionConflictException(convertToDTO(existingContact), existingContact.getVersion());
+        }
 
         // Mise à jour des champs
         existingContact.setNom(contactDTO.getNom());
@@ -113,14 +130,21 @@ public class ContactService {
         existingContact.setEmail(contactDTO.getEmail());
         existingContact.setTel(contactDTO.getTel());
 
-        ContactEntity updatedContact = repository.save(existingContact);
-        return convertToDTO(updatedContact);
+        // Les tâches dont il est membre l'affichent : elles changent aussi (synchronisation)
+        watermarks.touchActions(actionRepository.findByMembersContaining(existingContact));
+        watermarks.touch(utilisateur);
+
+        // Écrit par dirty checking (colonnes modifiées uniquement), flush pour obtenir la nouvelle version
+        repository.flush();
+        ContactDTO updated = convertToDTO(existingContact);
+        typeAhead.contactSaved(utilisateur.getId(), updated);
+        return updated;
     }
 
     // Supprimer un contact (uniquement si c’est celui de l’utilisateur connecté)
+    @Transactional
     public void delete(Long id, Authentication authentication) {
-        String username = authentication.getName();
-        UtilisateurEntity utilisateur = userService.findByUsername(username);
+        UtilisateurEntity utilisateur = currentUser.resolve(authentication);
 
         ContactEntity contact = repository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Contact non trouvé avec id: " + id));
@@ -130,6 +154,9 @@ public class ContactService {
             throw new EntityNotFoundException("Contact non trouvé pour cet utilisateur");
         }
 
+        watermarks.touchActions(actionRepository.findByMembersContaining(contact));
         repository.deleteById(id);
+        watermarks.touch(utilisateur);
+        typeAhead.contactDeleted(utilisateur.getId(), id);
     }
 }
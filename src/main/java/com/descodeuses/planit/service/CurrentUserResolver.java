@@ -0,0 +1,76 @@
+// Résout l'utilisateur connecté au plus une fois par requête HTTP, pour tous les services.
+// - Référence JPA par id si le principal vient du JWT (aucune requête)
+// - Sinon recherche par username
+// Le résultat est gardé dans les attributs de la requête ; un compteur des résolutions
+// effectives par requête permet de repérer les régressions dans les tests.
+
+package com.descodeuses.planit.service;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import com.descodeuses.planit.entity.UtilisateurEntity;
+import com.descodeuses.planit.repository.UtilisateurRepository;
+import com.descodeuses.planit.security.UtilisateurPrincipal;
+
+import jakarta.persistence.EntityNotFoundException;
+
+@Component
+public class CurrentUserResolver {
+
+    private static final String USER_ATTRIBUTE = CurrentUserResolver.class.getName() + ".user.";
+    private static final String LOOKUPS_ATTRIBUTE = CurrentUserResolver.class.getName() + ".lookups";
+
+    private final UtilisateurRepository repository;
+
+    public CurrentUserResolver(UtilisateurRepository repository) {
+        this.repository = repository;
+    }
+
+    // Utilisateur connecté d'après le contexte Spring Security
+    public UtilisateurEntity resolve() {
+        return resolve(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    // Utilisateur correspondant à l'authentification, résolu une seule fois par requête
+    public UtilisateurEntity resolve(Authentication authentication) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        String key = USER_ATTRIBUTE + authentication.getName();
+
+        if (attributes != null
+                && attributes.getAttribute(key, RequestAttributes.SCOPE_REQUEST) instanceof UtilisateurEntity user) {
+            return user;
+        }
+
+        UtilisateurEntity user = lookup(authentication);
+        if (attributes != null) {
+            attributes.setAttribute(key, user, RequestAttributes.SCOPE_REQUEST);
+            attributes.setAttribute(LOOKUPS_ATTRIBUTE, getLookupCount() + 1, RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
+    }
+
+    // Nombre de résolutions effectives (hors cache) pendant la requête en cours
+    public int getLookupCount() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return 0;
+        }
+        Object count = attributes.getAttribute(LOOKUPS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return count instanceof Integer value ? value : 0;
+    }
+
+    // Référence JPA (proxy, sans requête) quand l'id est connu grâce au token,
+    // sinon recherche classique par username
+    private UtilisateurEntity lookup(Authentication authentication) {
+        if (authentication.getPrincipal() instanceof UtilisateurPrincipal principal) {
+            return repository.getReferenceById(principal.getId());
+        }
+        String username = authentication.getName();
+        return repository.findByUsername(username)
+                .orElseThrow(() -> new EntityNotFoundException("Utilisateur introuvable avec le nom : " + username));
+    }
+}
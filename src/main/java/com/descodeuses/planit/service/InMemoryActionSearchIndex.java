@@ -0,0 +1,134 @@
+// Index inversé en mémoire, utilisé quand la base n'a pas de recherche plein texte (H2 des tests).
+// - mot normalisé (minuscules, sans accents) -> poids par tâche : 2 par occurrence dans le titre,
+//   1 dans la description (comme les poids A / B de PostgreSQL)
+// - chargé depuis la base à la première recherche, puis tenu à jour par ActionSearchListener après chaque commit
+// - une tâche doit contenir tous les mots recherchés ; le filtre d'accès est fait en base
+// - verrou lecture / écriture (pas de synchronized : pas d'épinglage des threads virtuels)
+
+package com.descodeuses.planit.service;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.descodeuses.planit.repository.ActionRepository;
+import com.descodeuses.planit.repository.ActionRepository.SearchText;
+
+public class InMemoryActionSearchIndex implements ActionSearchIndex {
+
+    private static final Set<String> STOP_WORDS = Set.of("le", "la", "les", "l", "un", "une", "des", "de", "du",
+            "d", "et", "ou", "a", "au", "aux", "en", "pour", "par", "sur", "avec", "the", "of", "and", "to");
+
+    private final ActionRepository repository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    private final Map<Long, Set<String>> termsByAction = new HashMap<>();
+    private volatile boolean loaded;
+
+    public InMemoryActionSearchIndex(ActionRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public List<Long> search(String terms, Long userId, int offset, int limit) {
+        List<String> words = tokenize(terms).stream().distinct().toList();
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        loadIfNeeded();
+
+        Map<Long, Integer> scores;
+        lock.readLock().lock();
+        try {
+            scores = new HashMap<>(postings.getOrDefault(words.get(0), Map.of()));
+            for (String word : words.subList(1, words.size())) {
+                Map<Long, Integer> matches = postings.getOrDefault(word, Map.of());
+                scores.keySet().retainAll(matches.keySet());
+                scores.replaceAll((id, score) -> score + matches.get(id));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (scores.isEmpty()) {
+            return List.of();
+        }
+
+        scores.keySet().retainAll(repository.findAccessibleIds(userId));
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())))
+                .skip(offset)
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    @Override
+    public void index(Long actionId, String title, String textarea) {
+        Map<String, Integer> weights = new HashMap<>();
+        tokenize(title).forEach(word -> weights.merge(word, 2, Integer::sum));
+        tokenize(textarea).forEach(word -> weights.merge(word, 1, Integer::sum));
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(actionId);
+            weights.forEach((word, weight) -> postings.computeIfAbsent(word, w -> new HashMap<>()).put(actionId, weight));
+            termsByAction.put(actionId, weights.keySet());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long actionId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(actionId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(Long actionId) {
+        Set<String> previous = termsByAction.remove(actionId);
+        if (previous == null) {
+            return;
+        }
+        for (String word : previous) {
+            Map<Long, Integer> ids = postings.get(word);
+            ids.remove(actionId);
+            if (ids.isEmpty()) {
+                postings.remove(word);
+            }
+        }
+    }
+
+    // Premier appel : indexe les tâches déjà en base (les écritures suivantes passent par index / remove)
+    private void loadIfNeeded() {
+        if (loaded) {
+            return;
+        }
+        List<SearchText> all = repository.findAllSearchText();
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                all.forEach(text -> {
+                    if (!termsByAction.containsKey(text.getId())) {
+                        index(text.getId(), text.getTitle(), text.getTextarea());
+                    }
+                });
+                loaded = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Minuscules, sans accents, découpé sur tout ce qui n'est ni lettre ni chiffre, sans mots vides
+    static List<String> tokenize(String text) {
+        return Words.split(text).stream().filter(word -> !STOP_WORDS.contains(word)).toList();
+    }
+}
@@ -3,6 +3,9 @@ package com.descodeuses.planit.service;
 
 // Importe les classes Java utiles pour gérer la date et les collections
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 // Importe les annotations Spring et les classes nécessaires
@@ -10,11 +13,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 // Importe les DTO et entités nécessaires à la journalisation
+import com.descodeuses.planit.dto.ActionBatchResultDTO;
 import com.descodeuses.planit.dto.ActionDTO;
 import com.descodeuses.planit.dto.AuthRequest;
 import com.descodeuses.planit.entity.LogDocument;
 import com.descodeuses.planit.entity.UtilisateurEntity;
-import com.descodeuses.planit.repository.LogDocumentRepository;
 
 // Importe les classes pour récupérer les informations sur la requête HTTP
 import jakarta.servlet.http.HttpServletRequest;
@@ -23,9 +26,9 @@ import jakarta.servlet.http.HttpServletRequest;
 @Service
 public class LogDocumentService {
 
-    // Injecte le repository MongoDB pour enregistrer les logs
+    // Écrivain asynchrone : les logs sont mis en file et écrits par lots dans MongoDB
     @Autowired
-    private LogDocumentRepository repo;
+    private LogDocumentWriter writer;
 
     // Méthode pour enregistrer un log lié à une action utilisateur (par exemple : tâche ajoutée, modifiée...)
     public void addLog(String text, HttpServletRequest request, ActionDTO dto) {
@@ -64,8 +67,36 @@ public class LogDocumentService {
         // Ajoute les données supplémentaires au document de log
         doc.setExtras(extras);
 
-        // Enregistre le log dans la base MongoDB
-        repo.save(doc);
+        // Met le log en file pour écriture asynchrone dans MongoDB
+        writer.enqueue(doc);
+    }
+
+    // Enregistre un log par opération réussie d'un lot (POST /api/action/batch),
+    // écrits ensemble dans MongoDB par une seule insertion groupée
+    public void addBatchLogs(HttpServletRequest request, List<ActionBatchResultDTO> results) {
+        List<LogDocument> docs = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (ActionBatchResultDTO result : results) {
+            if (result.getError() != null) {
+                continue;
+            }
+            LogDocument doc = new LogDocument();
+            doc.setText(switch (result.getOp()) {
+                case "create" -> "Action created";
+                case "delete" -> "Action deleted";
+                default -> "Action updated";
+            });
+            doc.setTimestamp(now);
+
+            Map<String, Object> details = new HashMap<>();
+            details.put("id", result.getId());
+            details.put("action", result.getAction());
+            doc.setExtras(Map.of("request", details, "batch", true));
+            docs.add(doc);
+        }
+
+        writer.enqueueAll(docs);
     }
 
     // Méthode pour enregistrer un log lié à l’authentification (login)
@@ -95,8 +126,8 @@ public class LogDocumentService {
         // Ajoute les données au log
         doc.setExtras(extras);
 
-        // Enregistre le document dans MongoDB
-        repo.save(doc);
+        // Met le document en file pour écriture asynchrone dans MongoDB
+        writer.enqueue(doc);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,209 @@
+// Écrit les logs MongoDB en arrière-plan, par lots, pour ne pas faire attendre
+// les requêtes HTTP sur un aller-retour Mongo.
+// - File d'attente bornée en mémoire, vidée par un thread dédié
+// - Écriture groupée via insert(Collection) dès que le lot est plein ou que l'intervalle est écoulé
+// - Politique configurable quand la file est pleine (abandon du plus récent, du plus ancien, ou attente bornée)
+// - Métriques : taille de la file, logs abandonnés, durée des écritures
+// - Thread d'écriture virtuel quand spring.threads.virtual.enabled=true : l'attente Mongo ne retient pas de thread système
+
+package com.descodeuses.planit.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.descodeuses.planit.entity.LogDocument;
+import com.descodeuses.planit.repository.LogDocumentRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+@Component
+public class LogDocumentWriter implements SmartLifecycle {
+
+    // Comportement quand la file est pleine
+    public enum OverflowPolicy {
+        DROP_NEWEST, // le nouveau log est abandonné
+        DROP_OLDEST, // le log le plus ancien est abandonné pour faire de la place
+        BLOCK        // l'appelant attend au plus blockTimeoutMs, puis le log est abandonné
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(LogDocumentWriter.class);
+
+    // Durée maximale d'une attente sur la file avant de revérifier l'arrêt
+    private static final long POLL_SLICE_MS = 200;
+
+    private final LogDocumentRepository repo;
+    private final BlockingQueue<LogDocument> queue;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutMs;
+    private final boolean virtualThreads;
+
+    private final Counter droppedOverflow;
+    private final Counter droppedError;
+    private final Counter written;
+    private final Timer flushTimer;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public LogDocumentWriter(LogDocumentRepository repo, MeterRegistry registry,
+            @Value("${planit.log.queue-capacity:10000}") int queueCapacity,
+            @Value("${planit.log.batch-size:200}") int batchSize,
+            @Value("${planit.log.flush-interval-ms:1000}") long flushIntervalMs,
+            @Value("${planit.log.overflow-policy:DROP_NEWEST}") OverflowPolicy overflowPolicy,
+            @Value("${planit.log.block-timeout-ms:50}") long blockTimeoutMs,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.repo = repo;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutMs = blockTimeoutMs;
+        this.virtualThreads = virtualThreads;
+
+        registry.gauge("planit.log.queue.size", queue, BlockingQueue::size);
+        this.droppedOverflow = Counter.builder("planit.log.dropped").tag("reason", "overflow")
+                .description("Logs abandonnés").register(registry);
+        this.droppedError = Counter.builder("planit.log.dropped").tag("reason", "error")
+                .description("Logs abandonnés").register(registry);
+        this.written = Counter.builder("planit.log.written")
+                .description("Logs écrits dans MongoDB").register(registry);
+        this.flushTimer = Timer.builder("planit.log.flush")
+                .description("Durée d'écriture d'un lot de logs dans MongoDB").register(registry);
+    }
+
+    // Ajoute un log à la file ; renvoie false s'il a été abandonné (file pleine)
+    public boolean enqueue(LogDocument doc) {
+        switch (overflowPolicy) {
+            case DROP_OLDEST:
+                while (!queue.offer(doc)) {
+                    if (queue.poll() != null) {
+                        droppedOverflow.increment();
+                    }
+                }
+                return true;
+            case BLOCK:
+                try {
+                    if (queue.offer(doc, blockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                break;
+            default:
+                if (queue.offer(doc)) {
+                    return true;
+                }
+        }
+        droppedOverflow.increment();
+        return false;
+    }
+
+    public void enqueueAll(Collection<LogDocument> docs) {
+        for (LogDocument doc : docs) {
+            enqueue(doc);
+        }
+    }
+
+    // Boucle du thread d'écriture : attend un premier log, complète le lot jusqu'à
+    // batchSize ou jusqu'à la fin de l'intervalle, puis l'écrit en une seule fois.
+    // Les attentes sont découpées en tranches courtes pour réagir vite à l'arrêt.
+    private void drainLoop() {
+        List<LogDocument> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                LogDocument first = queue.poll(POLL_SLICE_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize && running) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    long wait = Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(POLL_SLICE_MS));
+                    LogDocument next = queue.poll(wait, TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            flush(batch);
+            batch.clear();
+        }
+
+        // Arrêt : on écrit ce qui reste dans la file
+        while (true) {
+            queue.drainTo(batch, batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private void flush(List<LogDocument> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            repo.insert(batch);
+            written.increment(batch.size());
+        } catch (RuntimeException e) {
+            droppedError.increment(batch.size());
+            log.warn("Impossible d'enregistrer {} logs MongoDB : {}", batch.size(), e.getMessage());
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        Thread.Builder builder = virtualThreads ? Thread.ofVirtual() : Thread.ofPlatform().daemon();
+        worker = builder.name("log-document-writer").start(this::drainLoop);
+    }
+
+    // Arrête la boucle et attend l'écriture des derniers logs
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            worker.join(POLL_SLICE_MS + 5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+}
@@ -0,0 +1,20 @@
+package com.descodeuses.planit.service;
+
+import java.util.List;
+
+import com.descodeuses.planit.repository.ActionRepository;
+
+// Recherche par PostgreSQL : colonne générée search_vector, tenue à jour par la base à chaque écriture
+public class PostgresActionSearchIndex implements ActionSearchIndex {
+
+    private final ActionRepository repository;
+
+    public PostgresActionSearchIndex(ActionRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public List<Long> search(String terms, Long userId, int offset, int limit) {
+        return repository.searchRanked(terms, userId, limit, offset);
+    }
+}
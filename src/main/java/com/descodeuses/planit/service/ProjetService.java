@@ -14,30 +14,46 @@ import com.descodeuses.planit.dto.ProjetDTO;
 import com.descodeuses.planit.entity.ActionEntity;
 import com.descodeuses.planit.entity.ProjetEntity;
 import com.descodeuses.planit.entity.UtilisateurEntity;
+import com.descodeuses.planit.exception.VersionConflictException;
 import com.descodeuses.planit.repository.ActionRepository;
 import com.descodeuses.planit.repository.ProjetRepository;
 
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.transaction.Transactional;
 
 @Service
 public class ProjetService {
 
     private final ActionRepository actionRepository;
     private final ProjetRepository repository;
-    private final UserService utilisateurService;
+    private final CurrentUserResolver currentUser;
+    private final WatermarkService watermarks;
+    private final TypeAheadService typeAhead;
 
-    public ProjetService(ProjetRepository repository, UserService utilisateurService,
-            ActionRepository actionRepository) {
+    public ProjetService(ProjetRepository repository, CurrentUserResolver currentUser,
+            ActionRepository actionRepository, WatermarkService watermarks, TypeAheadService typeAhead) {
         this.repository = repository;
-        this.utilisateurService = utilisateurService;
+        this.currentUser = currentUser;
         this.actionRepository = actionRepository;
+        this.watermarks = watermarks;
+        this.typeAhead = typeAhead;
+    }
+
+    // Utilisateurs dont la liste de projets affiche ce projet : propriétaire et membres (/my)
+    private Set<Long> watchers(ProjetEntity projet) {
+        Set<Long> ids = new HashSet<>();
+        ids.add(projet.getUtilisateur().getId());
+        projet.getMembres().forEach(m -> ids.add(m.getId()));
+        return ids;
     }
 
     private ProjetDTO convertToDTO(ProjetEntity projet) {
-        return new ProjetDTO(
+        ProjetDTO dto = new ProjetDTO(
                 projet.getId(),
                 projet.getTitle(),
                 projet.getDescription());
+        dto.setVersion(projet.getVersion());
+        return dto;
     }
 
     private ProjetEntity convertToEntity(ProjetDTO projetDTO) {
@@ -50,8 +66,7 @@ public class ProjetService {
 
     // Récupère tous les projets de l'utilisateur connecté
     public List<ProjetDTO> getAllByUser(Authentication authentication) {
-        String username = authentication.getName();
-        UtilisateurEntity user = utilisateurService.findByUsername(username);
+        UtilisateurEntity user = currentUser.resolve(authentication);
         List<ProjetEntity> projets = repository.findByUtilisateur(user);
         return projets.stream()
                 .map(this::convertToDTO)
@@ -63,8 +78,7 @@ public class ProjetService {
         ProjetEntity projet = repository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Projet non trouvé avec id: " + id));
 
-        String username = authentication.getName();
-        UtilisateurEntity user = utilisateurService.findByUsername(username);
+        UtilisateurEntity user = currentUser.resolve(authentication);
 
         if (!projet.getUtilisateur().getId().equals(user.getId())) {
             throw new SecurityException("Accès refusé");
@@ -74,43 +88,56 @@ public class ProjetService {
     }
 
     // Crée un nouveau projet lié à l'utilisateur connecté
+    @Transactional
     public ProjetDTO create(ProjetDTO projetDTO, Authentication authentication) {
         ProjetEntity projet = convertToEntity(projetDTO);
 
-        String username = authentication.getName();
-        UtilisateurEntity user = utilisateurService.findByUsername(username);
+        UtilisateurEntity user = currentUser.resolve(authentication);
         projet.setUtilisateur(user);
 
         ProjetEntity saved = repository.save(projet);
-        return convertToDTO(saved);
+        watermarks.touch(user);
+        ProjetDTO created = convertToDTO(saved);
+        typeAhead.projetSaved(watchers(saved), created);
+        return created;
     }
 
     // Met à jour un projet existant (vérifie propriété)
-    public ProjetDTO update(Long id, ProjetDTO projetDTO, Authentication authentication) {
+    // expectedVersion (If-Match, optionnel) : refuse l'écriture si le projet a changé entre-temps
+    @Transactional
+    public ProjetDTO update(Long id, ProjetDTO projetDTO, Long expectedVersion, Authentication authentication) {
         ProjetEntity existing = repository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Projet non trouvé avec id: " + id));
 
-        String username = authentication.getName();
-        UtilisateurEntity user = utilisateurService.findByUsername(username);
+        UtilisateurEntity user = currentUser.resolve(authentication);
 
         if (!existing.getUtilisateur().getId().equals(user.getId())) {
             throw new SecurityException("Accès refusé");
         }
+        if (expectedVersion != null && !expectedVersion.equals(existing.getVersion())) {
+            throw new VersionConflictException(convertToDTO(existing), existing.getVersion());
+        }
 
         existing.setTitle(projetDTO.getTitle());
         existing.setDescription(projetDTO.getDescription());
 
-        ProjetEntity updated = repository.save(existing);
-        return convertToDTO(updated);
+        // Écrit par dirty checking (colonnes modifiées uniquement), flush pour obtenir la nouvelle version
+        // Les tâches rattachées affichent le projet : elles changent aussi pour leur propriétaire
+        watermarks.touchActions(actionRepository.findByProjet(existing));
+        watermarks.touch(watchers(existing));
+        repository.flush();
+        ProjetDTO updated = convertToDTO(existing);
+        typeAhead.projetSaved(watchers(existing), updated);
+        return updated;
     }
 
     // Supprime un projet (vérifie propriété)
+    @Transactional
     public void delete(Long id, Authentication authentication) {
         ProjetEntity projet = repository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Projet non trouvé avec id: " + id));
 
-        String username = authentication.getName();
-        UtilisateurEntity user = utilisateurService.findByUsername(username);
+        UtilisateurEntity user = currentUser.resolve(authentication);
 
         if (!projet.getUtilisateur().getId().equals(user.getId())) {
             throw new SecurityException("Accès refusé");
@@ -121,29 +148,20 @@ public class ProjetService {
         for (ActionEntity action : actions) {
             action.setProjet(null);
         }
-        actionRepository.saveAll(actions);
+        watermarks.touchActions(actions);
+        Set<Long> watchers = watchers(projet);
+        watermarks.touch(watchers);
+        typeAhead.projetDeleted(watchers, id);
 
         repository.deleteById(id);
     }
 
-    // Récupère les projets où je suis propriétaire OU membre
+    // Récupère les projets où je suis propriétaire OU membre (une seule requête)
     public List<ProjetDTO> getMyProjects(Authentication authentication) {
-        String username = authentication.getName();
-        UtilisateurEntity utilisateur = utilisateurService.findByUsername(username);
-
-        // Projets où je suis propriétaire
-        List<ProjetEntity> owned = repository.findByUtilisateur(utilisateur);
+        UtilisateurEntity utilisateur = currentUser.resolve(authentication);
 
-        // Projets où je suis membre
-        List<ProjetEntity> assigned = repository.findByMembresContaining(utilisateur);
-
-        // Fusionner sans doublons
-        Set<ProjetEntity> all = new HashSet<>();
-        all.addAll(owned);
-        all.addAll(assigned);
-
-        return all.stream()
-                .map(p -> new ProjetDTO(p.getId(), p.getTitle(), p.getDescription()))
+        return repository.findOwnedOrMember(utilisateur.getId()).stream()
+                .map(this::convertToDTO)
                 .toList();
     }
 }
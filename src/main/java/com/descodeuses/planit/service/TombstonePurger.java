@@ -0,0 +1,48 @@
+// Purge périodique des traces de suppression de tâches (todo_tombstone).
+// Avant la purge, le plus grand numéro de modification purgé est retenu par utilisateur :
+// GET /api/action/changes répond alors reset = true aux jetons plus anciens.
+
+package com.descodeuses.planit.service;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.descodeuses.planit.repository.ActionTombstoneRepository;
+import com.descodeuses.planit.repository.UserWatermarkRepository;
+
+import jakarta.transaction.Transactional;
+
+@Component
+public class TombstonePurger {
+
+    private static final Logger log = LoggerFactory.getLogger(TombstonePurger.class);
+
+    private final ActionTombstoneRepository tombstoneRepository;
+    private final UserWatermarkRepository watermarkRepository;
+    private final Duration retention;
+
+    public TombstonePurger(ActionTombstoneRepository tombstoneRepository,
+            UserWatermarkRepository watermarkRepository,
+            @Value("${planit.sync.tombstone-retention-days:30}") long retentionDays) {
+        this.tombstoneRepository = tombstoneRepository;
+        this.watermarkRepository = watermarkRepository;
+        this.retention = Duration.ofDays(retentionDays);
+    }
+
+    @Scheduled(cron = "${planit.sync.tombstone-purge-cron:0 30 3 * * *}")
+    @Transactional
+    public void purge() {
+        Instant cutoff = Instant.now().minus(retention);
+        watermarkRepository.markPurged(cutoff);
+        int purged = tombstoneRepository.deleteDeletedBefore(cutoff);
+        if (purged > 0) {
+            log.info("{} traces de suppression purgées (antérieures au {})", purged, cutoff);
+        }
+    }
+}
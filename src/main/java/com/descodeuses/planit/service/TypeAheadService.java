@@ -0,0 +1,341 @@
+// Saisie semi-automatique (GET /api/typeahead?q=) : un index en mémoire par utilisateur, interrogé
+// à chaque frappe sans aller en base.
+// - Contenu : titres de ses tâches (possédées ou assignées) et de ses projets (possédés ou partagés),
+//   prénom / nom / email de ses contacts
+// - Index de préfixes : chaque mot (minuscules, sans accents) est indexé par tous ses préfixes
+//   jusqu'à MAX_PREFIX caractères ; une recherche = une lecture de table par mot saisi
+// - Construit à la première recherche de l'utilisateur (trois requêtes), puis tenu à jour après commit
+//   par les écritures des services (tâches via ActionChangeEvent, contacts, projets)
+// - Budget mémoire : cache Caffeine pondéré par la taille estimée de chaque index ; au-delà, les index
+//   les moins utilisés sont évincés et seront reconstruits à la demande
+// - Pas de synchronized (threads virtuels) : verrou lecture / écriture par index
+
+package com.descodeuses.planit.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.descodeuses.planit.dto.ActionDTO;
+import com.descodeuses.planit.dto.ContactDTO;
+import com.descodeuses.planit.dto.ProjetDTO;
+import com.descodeuses.planit.dto.TypeAheadDTO;
+import com.descodeuses.planit.repository.ActionRepository;
+import com.descodeuses.planit.repository.ContactRepository;
+import com.descodeuses.planit.repository.ProjetRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+@Service
+public class TypeAheadService {
+
+    static final int MAX_PREFIX = 12;
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 50;
+
+    // Ordre d'affichage à pertinence égale
+    private static final List<String> TYPES = List.of("action", "projet", "contact");
+
+    private final ActionRepository actionRepository;
+    private final ContactRepository contactRepository;
+    private final ProjetRepository projetRepository;
+    private final Cache<Long, UserIndex> indexes;
+    private final Timer queryTimer;
+
+    public TypeAheadService(ActionRepository actionRepository, ContactRepository contactRepository,
+            ProjetRepository projetRepository, MeterRegistry registry,
+            @Value("${planit.typeahead.memory-budget-mb:64}") long memoryBudgetMb,
+            @Value("${planit.typeahead.expire-after-access-minutes:30}") long expireMinutes) {
+        this.actionRepository = actionRepository;
+        this.contactRepository = contactRepository;
+        this.projetRepository = projetRepository;
+        this.indexes = Caffeine.newBuilder()
+                .maximumWeight(memoryBudgetMb * 1024 * 1024)
+                .weigher((Long userId, UserIndex index) -> index.weight())
+                .expireAfterAccess(expireMinutes, TimeUnit.MINUTES)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, indexes, "planit.typeahead");
+        this.queryTimer = Timer.builder("planit.typeahead.query")
+                .description("Durée d'une recherche dans l'index de saisie semi-automatique")
+                .register(registry);
+    }
+
+    // Suggestions dont les mots commencent par chacun des mots saisis
+    public List<TypeAheadDTO> suggest(Long userId, String query, Integer limit) {
+        List<String> words = Words.split(query).stream().distinct().toList();
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        int size = limit == null ? DEFAULT_LIMIT : Math.min(Math.max(limit, 1), MAX_LIMIT);
+        UserIndex index = indexFor(userId);
+        long start = System.nanoTime();
+        try {
+            return index.search(words, Words.normalize(query.trim()), size);
+        } finally {
+            queryTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Tâche créée ou modifiée / supprimée : ses destinataires sont le propriétaire et les assignés,
+    // avant et après la modification (un assigné retiré ne doit plus la voir)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onActionChange(ActionChangeEvent event) {
+        switch (event.type()) {
+            case CREATED, UPDATED -> {
+                ActionDTO action = event.action();
+                Set<Long> holders = new HashSet<>(action.getAssignedUserIds() == null ? Set.of()
+                        : action.getAssignedUserIds());
+                holders.add(action.getUtilisateurId());
+                TypeAheadDTO suggestion = new TypeAheadDTO("action", action.getId(), action.getTitle(), null,
+                        action.getVersion());
+                for (Long userId : event.recipients()) {
+                    if (holders.contains(userId)) {
+                        update(userId, index -> index.put(suggestion));
+                    } else {
+                        update(userId, index -> index.remove("action", action.getId()));
+                    }
+                }
+            }
+            case DELETED -> event.recipients()
+                    .forEach(userId -> update(userId, index -> index.remove("action", event.actionId())));
+            // Lot : trop de changements à détailler, les index concernés seront reconstruits
+            case SYNC -> indexes.invalidateAll(event.recipients());
+        }
+    }
+
+    public void contactSaved(Long ownerId, ContactDTO contact) {
+        String label = ((contact.getPrenom() == null ? "" : contact.getPrenom()) + " "
+                + (contact.getNom() == null ? "" : contact.getNom())).trim();
+        TypeAheadDTO suggestion = new TypeAheadDTO("contact", contact.getId(), label, contact.getEmail(),
+                contact.getVersion());
+        afterCommit(() -> update(ownerId, index -> index.put(suggestion)));
+    }
+
+    public void contactDeleted(Long ownerId, Long contactId) {
+        afterCommit(() -> update(ownerId, index -> index.remove("contact", contactId)));
+    }
+
+    // watchers : propriétaire et membres du projet
+    public void projetSaved(Collection<Long> watchers, ProjetDTO projet) {
+        TypeAheadDTO suggestion = new TypeAheadDTO("projet", projet.getId(), projet.getTitle(), null,
+                projet.getVersion());
+        Set<Long> ids = Set.copyOf(watchers);
+        afterCommit(() -> ids.forEach(userId -> update(userId, index -> index.put(suggestion))));
+    }
+
+    public void projetDeleted(Collection<Long> watchers, Long projetId) {
+        Set<Long> ids = Set.copyOf(watchers);
+        afterCommit(() -> ids.forEach(userId -> update(userId, index -> index.remove("projet", projetId))));
+    }
+
+    // Suppression d'un utilisateur : ses tâches et projets disparaissent aussi des index des autres
+    public void invalidateAll() {
+        afterCommit(indexes::invalidateAll);
+    }
+
+    // Index de l'utilisateur, construit s'il n'est pas en mémoire.
+    // Il est publié vide et verrouillé avant les requêtes : les autres lectures attendent sa construction,
+    // les mises à jour concurrentes s'appliquent après (la version la plus récente l'emporte)
+    private UserIndex indexFor(Long userId) {
+        UserIndex index = indexes.getIfPresent(userId);
+        if (index != null) {
+            return index;
+        }
+        UserIndex fresh = new UserIndex();
+        fresh.lock.writeLock().lock();
+        try {
+            UserIndex existing = indexes.asMap().putIfAbsent(userId, fresh);
+            if (existing != null) {
+                return existing;
+            }
+            try {
+                actionRepository.findTypeAhead(userId).forEach(fresh::put);
+                projetRepository.findTypeAhead(userId).forEach(fresh::put);
+                contactRepository.findTypeAhead(userId).forEach(fresh::put);
+            } catch (RuntimeException e) {
+                indexes.invalidate(userId);
+                throw e;
+            }
+        } finally {
+            fresh.lock.writeLock().unlock();
+        }
+        reweigh(userId);
+        return fresh;
+    }
+
+    // Met à jour l'index de l'utilisateur s'il est en mémoire (sinon il sera construit à jour)
+    private void update(Long userId, Consumer<UserIndex> change) {
+        UserIndex index = indexes.getIfPresent(userId);
+        if (index == null) {
+            return;
+        }
+        index.lock.writeLock().lock();
+        try {
+            change.accept(index);
+        } finally {
+            index.lock.writeLock().unlock();
+        }
+        reweigh(userId);
+    }
+
+    // Caffeine ne recalcule le poids d'une entrée que lorsqu'elle est réécrite
+    private void reweigh(Long userId) {
+        indexes.asMap().computeIfPresent(userId, (id, index) -> index);
+    }
+
+    // Applique après le commit de la transaction en cours (rien si elle est annulée), sinon tout de suite
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // Évictions en attente appliquées tout de suite (Caffeine les traite sinon en tâche de fond)
+    void cleanUp() {
+        indexes.cleanUp();
+    }
+
+    long estimatedBytes(Long userId) {
+        UserIndex index = indexes.getIfPresent(userId);
+        return index == null ? 0 : index.bytes;
+    }
+
+    // Index d'un utilisateur : suggestions par clé "type:id" et préfixe -> clés
+    static final class UserIndex {
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<String, Entry> entries = new HashMap<>();
+        private final Map<String, Set<String>> prefixes = new HashMap<>();
+        private long bytes;
+
+        private record Entry(TypeAheadDTO suggestion, Set<String> words, String normalizedLabel) {
+        }
+
+        // Ignore une version plus ancienne que celle déjà indexée (événements reçus dans le désordre)
+        void put(TypeAheadDTO suggestion) {
+            String key = suggestion.getType() + ":" + suggestion.getId();
+            Entry previous = entries.get(key);
+            if (previous != null && previous.suggestion().getVersion() != null && suggestion.getVersion() != null
+                    && previous.suggestion().getVersion() > suggestion.getVersion()) {
+                return;
+            }
+            remove(key);
+
+            Set<String> words = new HashSet<>(Words.split(suggestion.getLabel()));
+            words.addAll(Words.split(suggestion.getDetail()));
+            for (String word : words) {
+                for (int length = 1; length <= Math.min(word.length(), MAX_PREFIX); length++) {
+                    String prefix = word.substring(0, length);
+                    Set<String> keys = prefixes.get(prefix);
+                    if (keys == null) {
+                        keys = new HashSet<>();
+                        prefixes.put(prefix, keys);
+                        bytes += 64 + 2L * length;
+                    }
+                    keys.add(key);
+                    bytes += 32;
+                }
+            }
+            String label = suggestion.getLabel() == null ? "" : suggestion.getLabel();
+            entries.put(key, new Entry(suggestion, words, Words.normalize(label)));
+            bytes += 160 + 4L * (label.length() + (suggestion.getDetail() == null ? 0 : suggestion.getDetail().length()));
+        }
+
+        void remove(String type, Long id) {
+            remove(type + ":" + id);
+        }
+
+        private void remove(String key) {
+            Entry entry = entries.remove(key);
+            if (entry == null) {
+                return;
+            }
+            TypeAheadDTO suggestion = entry.suggestion();
+            bytes -= 160 + 4L * ((suggestion.getLabel() == null ? 0 : suggestion.getLabel().length())
+                    + (suggestion.getDetail() == null ? 0 : suggestion.getDetail().length()));
+            for (String word : entry.words()) {
+                for (int length = 1; length <= Math.min(word.length(), MAX_PREFIX); length++) {
+                    String prefix = word.substring(0, length);
+                    Set<String> keys = prefixes.get(prefix);
+                    if (keys != null && keys.remove(key)) {
+                        bytes -= 32;
+                        if (keys.isEmpty()) {
+                            prefixes.remove(prefix);
+                            bytes -= 64 + 2L * length;
+                        }
+                    }
+                }
+            }
+        }
+
+        // Intersection des préfixes saisis (du plus sélectif au moins sélectif) ; au-delà de MAX_PREFIX
+        // caractères, les mots des suggestions sont vérifiés en entier
+        List<TypeAheadDTO> search(List<String> words, String normalizedQuery, int limit) {
+            lock.readLock().lock();
+            try {
+                List<Set<String>> postings = new ArrayList<>();
+                for (String word : words) {
+                    Set<String> keys = prefixes.get(word.length() > MAX_PREFIX ? word.substring(0, MAX_PREFIX) : word);
+                    if (keys == null) {
+                        return List.of();
+                    }
+                    postings.add(keys);
+                }
+                postings.sort(Comparator.comparingInt(Set::size));
+
+                List<Entry> matches = new ArrayList<>();
+                for (String key : postings.get(0)) {
+                    if (postings.stream().allMatch(keys -> keys.contains(key))) {
+                        Entry entry = entries.get(key);
+                        if (words.stream().allMatch(word -> word.length() <= MAX_PREFIX
+                                || entry.words().stream().anyMatch(w -> w.startsWith(word)))) {
+                            matches.add(entry);
+                        }
+                    }
+                }
+
+                // Libellé commençant par la saisie d'abord, puis par type et ordre alphabétique
+                return matches.stream()
+                        .sorted(Comparator.comparing((Entry e) -> !e.normalizedLabel().startsWith(normalizedQuery))
+                                .thenComparing(e -> TYPES.indexOf(e.suggestion().getType()))
+                                .thenComparing(Entry::normalizedLabel)
+                                .thenComparing(e -> e.suggestion().getId()))
+                        .limit(limit)
+                        .map(Entry::suggestion)
+                        .toList();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        int weight() {
+            return (int) Math.min(Integer.MAX_VALUE, Math.max(bytes, 1));
+        }
+    }
+}
@@ -1,8 +1,10 @@
 // implémentation spécifique de l’interface Spring Security UserDetailsService.
-// rôle unique : charger les informations utilisateur à partir de la base de données 
+// rôle : charger les informations utilisateur à partir de la base de données 
 // quand Spring Security en a besoin (typiquement lors de l’authentification).
 // renvoie un objet UserDetails (avec username, password, roles) qui permet à Spring Security 
 //de vérifier les identifiants.
+// implémente aussi UserDetailsPasswordService : après un login réussi, enregistre le mot de passe
+// ré-encodé quand son hash utilise un coût ou un algorithme dépassé (voir PasswordHashing).
 
 
 package com.descodeuses.planit.service;
@@ -12,23 +14,30 @@ import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired; // Pour l'injection de dépendances
 import org.springframework.security.core.authority.SimpleGrantedAuthority; // Pour représenter les rôles
-import org.springframework.security.core.userdetails.User; // Implémentation standard de UserDetails
 import org.springframework.security.core.userdetails.UserDetails; // Interface que Spring utilise pour l'authentification
+import org.springframework.security.core.userdetails.UserDetailsPasswordService; // Ré-encodage du mot de passe au login
 import org.springframework.security.core.userdetails.UserDetailsService; // Interface à implémenter pour la logique de chargement des utilisateurs
 import org.springframework.security.core.userdetails.UsernameNotFoundException; // Exception levée si l'utilisateur n'existe pas
 import org.springframework.stereotype.Service; // Pour marquer cette classe comme un service Spring
 
 import com.descodeuses.planit.entity.UtilisateurEntity; // Ton entité représentant un utilisateur dans ta base de données
 import com.descodeuses.planit.repository.UtilisateurRepository; // Le repository pour accéder aux utilisateurs
+import com.descodeuses.planit.security.CaffeineUserCache; // Cache des UserDetails utilisé au login
+import com.descodeuses.planit.security.UtilisateurPrincipal; // UserDetails qui porte aussi l'id de l'utilisateur
+
+import jakarta.transaction.Transactional;
 
 // Classe de service Spring pour la gestion de l’authentification des utilisateurs
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     // Injection du repository permettant d'accéder à la base de données des utilisateurs
     @Autowired
     private UtilisateurRepository utilisateurRepository;
 
+    @Autowired
+    private CaffeineUserCache userCache;
+
     // Méthode obligatoire à implémenter : permet à Spring Security de charger un utilisateur via son username
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -39,11 +48,29 @@ public class UserDetailsServiceImpl implements UserDetailsService {
             .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
         // On retourne un objet Spring Security `User` (qui implémente UserDetails)
-        // Il contient : le nom d’utilisateur, le mot de passe, et une liste de rôles (authorities)
-        return new User(
+        // Il contient : l'id, le nom d’utilisateur, le mot de passe, et une liste de rôles (authorities)
+        return new UtilisateurPrincipal(
+            user.getId(), // id en base (inscrit dans le JWT)
             user.getUsername(), // identifiant
             user.getPassword(), // mot de passe (doit être déjà encodé)
             List.of(new SimpleGrantedAuthority(user.getRole())) // autorité/role ex: ROLE_ADMIN
         );
     }
-}
\ No newline at end of file
+
+    // Appelée par Spring Security après un login réussi si le hash doit être mis à niveau :
+    // newPassword est le mot de passe saisi, encodé avec l'algorithme et le coût courants.
+    // Passe par l'entité (et non un UPDATE en masse) pour ne pas vider tout le cache de second niveau.
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UtilisateurEntity entity = utilisateurRepository.findByUsername(user.getUsername())
+            .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        entity.setPassword(newPassword);
+
+        UserDetails upgraded = new UtilisateurPrincipal(entity.getId(), entity.getUsername(), newPassword,
+            user.getAuthorities());
+        // Le cache de login contient encore l'ancien hash : il serait ré-encodé à chaque connexion
+        userCache.putUserInCache(upgraded);
+        return upgraded;
+    }
+}
@@ -9,12 +9,12 @@
 // Déclare que cette classe fait partie du package com.descodeuses.planit.service
 package com.descodeuses.planit.service;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 // Indique que c’est un service Spring, donc une classe métier réutilisable
 import org.springframework.stereotype.Service;
@@ -25,10 +25,12 @@ import com.descodeuses.planit.entity.ProjetEntity;
 // Import de l’entité Utilisateur (celle qui correspond à la table des utilisateurs)
 import com.descodeuses.planit.entity.UtilisateurEntity;
 import com.descodeuses.planit.repository.ActionRepository;
+import com.descodeuses.planit.repository.ActionTombstoneRepository;
 import com.descodeuses.planit.repository.ContactRepository;
 import com.descodeuses.planit.repository.ProjetRepository;
 // Import du repository (interface permettant d'accéder aux utilisateurs en base)
 import com.descodeuses.planit.repository.UtilisateurRepository;
+import com.descodeuses.planit.security.CaffeineUserCache;
 
 // Exception lancée si l’utilisateur n’est pas trouvé
 import jakarta.persistence.EntityNotFoundException;
@@ -46,15 +48,25 @@ public class UserService {
     private final ActionRepository actionRepository;
     private final ContactRepository contactRepository;
     private final ProjetRepository projetRepository;
+    private final CurrentUserResolver currentUser;
+    private final WatermarkService watermarks;
+    private final ActionTombstoneRepository tombstoneRepository;
+    private final TypeAheadService typeAhead;
+    private final CaffeineUserCache userCache;
 
 
     // Constructeur avec injection du repository (Spring s’en occupe)
-    public UserService(UtilisateurRepository repository, PasswordEncoder passwordEncoder, ActionRepository actionRepository, ContactRepository contactRepository, ProjetRepository projetRepository) {
+    public UserService(UtilisateurRepository repository, PasswordEncoder passwordEncoder, ActionRepository actionRepository, ContactRepository contactRepository, ProjetRepository projetRepository, CurrentUserResolver currentUser, WatermarkService watermarks, ActionTombstoneRepository tombstoneRepository, TypeAheadService typeAhead, CaffeineUserCache userCache) {
         this.repository = repository;
         this.passwordEncoder = passwordEncoder;
         this.actionRepository = actionRepository;
         this.projetRepository = projetRepository;
         this.contactRepository = contactRepository;
+        this.currentUser = currentUser;
+        this.watermarks = watermarks;
+        this.tombstoneRepository = tombstoneRepository;
+        this.typeAhead = typeAhead;
+        this.userCache = userCache;
 
     }
 
@@ -77,10 +89,7 @@ public class UserService {
 
     // Méthode publique pour avoir l'utilisateur actuellement connecté
     public UtilisateurEntity getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        return utilisateurRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("Utilisateur non trouvé"));
+        return currentUser.resolve();
     }
 
     public UtilisateurDTO convertToDTO(UtilisateurEntity utilisateur) {
@@ -119,13 +128,24 @@ public class UserService {
     }
 
     // Met à jour le profil
+    @Transactional
     public UtilisateurDTO update(Long id, UtilisateurDTO dto) {
         UtilisateurEntity existingEntity = repository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Utilisateur non trouvé avec id: " + id));
+        String previousUsername = existingEntity.getUsername();
 
         existingEntity = converttoEntity(existingEntity, dto);
+        // Mot de passe, rôle ou nom d'utilisateur ont pu changer : plus de login sur l'ancien état en cache
+        userCache.evictAfterCommit(previousUsername, existingEntity.getUsername());
 
         UtilisateurEntity updatedEntity = repository.save(existingEntity);
+
+        // Le nom est affiché dans ses tâches et dans celles où il est assigné (ETag des listes,
+        // synchronisation)
+        List<ActionEntity> shown = new ArrayList<>(actionRepository.findByUtilisateur(updatedEntity));
+        shown.addAll(actionRepository.findByUtilisateursAssignesContaining(updatedEntity));
+        watermarks.touchActions(shown);
+        watermarks.touch(updatedEntity);
         return convertToDTO(updatedEntity);
     }
 
@@ -167,6 +187,8 @@ public class UserService {
             task.getUtilisateursAssignes().remove(user);
             actionRepository.save(task);
         }
+        // Ces tâches changent pour leur propriétaire (ETag des listes, synchronisation)
+        watermarks.touchActions(assignedTasks);
 
         // Supprimer toutes les tâches dont il est propriétaire
         List<ActionEntity> ownedTasks = actionRepository.findByUtilisateur(user);
@@ -175,9 +197,37 @@ public class UserService {
         // Supprimer tous ses contacts
         contactRepository.deleteAll(contactRepository.findByUtilisateur(user));
 
-        // Supprimer tous ses projets
-        projetRepository.deleteAll(projetRepository.findByUtilisateur(user));
+        // Le retirer des projets des autres où il est membre. Par la collection et non par SQL :
+        // Hibernate invalide ainsi l'entrée projet-membres du cache de second niveau
+        Set<Long> projectWatchers = new HashSet<>();
+        for (ProjetEntity projet : projetRepository.findByMembresContaining(user)) {
+            projet.getMembres().remove(user);
+            projectWatchers.add(projet.getUtilisateur().getId());
+            projet.getMembres().forEach(membre -> projectWatchers.add(membre.getId()));
+        }
+
+        // Supprimer tous ses projets, après en avoir détaché les tâches des autres utilisateurs
+        List<ProjetEntity> ownedProjects = projetRepository.findByUtilisateur(user);
+        for (ProjetEntity projet : ownedProjects) {
+            List<ActionEntity> others = actionRepository.findByProjet(projet).stream()
+                    .filter(action -> !action.getUtilisateur().getId().equals(user.getId()))
+                    .toList();
+            others.forEach(action -> action.setProjet(null));
+            watermarks.touchActions(others);
+            projet.getMembres().forEach(membre -> projectWatchers.add(membre.getId()));
+        }
+        projetRepository.deleteAll(ownedProjects);
+        projectWatchers.remove(user.getId());
+        watermarks.touch(projectWatchers);
+
+
+        // Ses traces de suppression et son compteur n'ont plus de lecteur
+        tombstoneRepository.deleteByUtilisateurId(user.getId());
+        watermarks.forget(user.getId());
+        // Ses tâches et projets apparaissaient aussi dans les suggestions des assignés et des membres
+        typeAhead.invalidateAll();
 
+        userCache.evictAfterCommit(user.getUsername());
 
         // Enfin supprimer l’utilisateur
         utilisateurRepository.delete(user);
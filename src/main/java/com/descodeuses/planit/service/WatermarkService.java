@@ -0,0 +1,124 @@
+// Compteur de modifications par utilisateur, utilisé comme ETag des listes
+// (GET /api/action, /api/projet, /api/projet/my, /api/contact) et comme jeton de
+// synchronisation des tâches (GET /api/action/changes?since=).
+// - Lecture : une requête sur la clé primaire, aucune tâche / projet / contact chargé
+// - Écriture : les services l'incrémentent pour chaque utilisateur dont une liste change,
+//   dans la même transaction que la modification (ou juste après son commit)
+// Les contrôleurs lisent le compteur AVANT la liste : au pire l'ETag renvoyé est plus
+// ancien que les données (le client rechargera), jamais plus récent.
+// L'incrément verrouille la ligne de l'utilisateur jusqu'au commit : ses écritures sont
+// sérialisées, les numéros de modification sont donc visibles dans l'ordre croissant.
+
+package com.descodeuses.planit.service;
+
+import java.sql.DatabaseMetaData;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+
+import com.descodeuses.planit.entity.ActionEntity;
+import com.descodeuses.planit.entity.UtilisateurEntity;
+import com.descodeuses.planit.repository.UserWatermarkRepository;
+
+import jakarta.transaction.Transactional;
+
+@Service
+public class WatermarkService {
+
+    // Valeur du compteur pour un utilisateur (0 tant qu'il n'a rien modifié)
+    public record Watermark(Long userId, long version) {
+    }
+
+    private final UserWatermarkRepository repository;
+    private final CurrentUserResolver currentUser;
+    private final boolean postgres;
+
+    public WatermarkService(UserWatermarkRepository repository, CurrentUserResolver currentUser, DataSource dataSource)
+            throws MetaDataAccessException {
+        this.repository = repository;
+        this.currentUser = currentUser;
+        String database = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        this.postgres = "PostgreSQL".equals(database);
+    }
+
+    // Compteur de l'utilisateur connecté (référence JPA : pas de chargement de l'utilisateur)
+    public Watermark current(Authentication authentication) {
+        Long userId = currentUser.resolve(authentication).getId();
+        return new Watermark(userId, repository.findVersion(userId).orElse(0L));
+    }
+
+    @Transactional
+    public void touch(UtilisateurEntity utilisateur) {
+        touch(List.of(utilisateur.getId()));
+    }
+
+    // Incrémente le compteur de l'utilisateur et renvoie la nouvelle valeur
+    // (numéro de modification à enregistrer sur les tâches écrites dans la transaction)
+    @Transactional
+    public long next(UtilisateurEntity utilisateur) {
+        touch(List.of(utilisateur.getId()));
+        return repository.findVersion(utilisateur.getId()).orElseThrow();
+    }
+
+    // Tâches dont l'affichage change sans écriture directe (projet renommé, contact ou
+    // utilisateur modifié...) : nouveau numéro de modification pour qu'elles ressortent
+    // dans la synchronisation de leur propriétaire (un incrément par propriétaire)
+    // Propriétaires traités par id croissant : deux transactions verrouillent leurs lignes
+    // dans le même ordre (pas d'interblocage)
+    @Transactional
+    public void touchActions(Collection<ActionEntity> actions) {
+        Map<Long, List<ActionEntity>> byOwner = actions.stream()
+                .collect(Collectors.groupingBy(a -> a.getUtilisateur().getId(), TreeMap::new, Collectors.toList()));
+        for (List<ActionEntity> owned : byOwner.values()) {
+            long changeSeq = next(owned.get(0).getUtilisateur());
+            owned.forEach(action -> action.setChangeSeq(changeSeq));
+        }
+    }
+
+    // Plus grand numéro de modification dont les suppressions ont été purgées
+    public long purgedSeq(Long userId) {
+        return repository.findPurgedSeq(userId).orElse(0L);
+    }
+
+    // Suppression de l'utilisateur : son compteur disparaît avec lui
+    @Transactional
+    public void forget(Long userId) {
+        repository.deleteById(userId);
+    }
+
+    // Incrémente le compteur des utilisateurs dont une liste vient de changer
+    @Transactional
+    public void touch(Collection<Long> userIds) {
+        Set<Long> ids = new HashSet<>(userIds);
+        ids.removeIf(Objects::isNull);
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        int updated = repository.increment(ids);
+        if (updated < ids.size()) {
+            // Première écriture de ces utilisateurs : création de leur ligne par upsert, une
+            // transaction concurrente peut l'avoir créée depuis l'UPDATE ci-dessus
+            ids.removeAll(repository.findExistingUserIds(ids));
+            for (Long id : ids) {
+                if (postgres) {
+                    repository.upsertPostgres(id);
+                } else {
+                    repository.upsertH2(id);
+                }
+            }
+        }
+    }
+}
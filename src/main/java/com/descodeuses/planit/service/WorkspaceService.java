@@ -0,0 +1,79 @@
+// Espace de travail (GET /api/workspace) : projets, tâches, tâches assignées et contacts en un appel.
+// - Les quatre lectures sont indépendantes : lancées en parallèle sur l'exécuteur de tâches Spring,
+//   chacune dans sa propre transaction en lecture seule, donc sur sa propre connexion
+// - Durée totale ≈ la plus lente des lectures, et non leur somme
+// - Le thread de la requête n'utilise pas la base pendant l'attente : il ne retient pas de connexion
+//   dont les lectures parallèles auraient besoin (pas d'interblocage sur un petit pool JDBC)
+// - Les ordres SQL des lectures restent comptés dans les métriques de la requête (SqlStatistics)
+
+package com.descodeuses.planit.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.descodeuses.planit.dto.WorkspaceDTO;
+import com.descodeuses.planit.metrics.SqlStatistics;
+
+@Service
+public class WorkspaceService {
+
+    private final ProjetService projetService;
+    private final ActionService actionService;
+    private final ContactService contactService;
+    private final TransactionTemplate readOnly;
+    private final Executor executor;
+
+    public WorkspaceService(ProjetService projetService, ActionService actionService,
+            ContactService contactService, PlatformTransactionManager transactionManager,
+            @Qualifier("applicationTaskExecutor") Executor executor) {
+        this.projetService = projetService;
+        this.actionService = actionService;
+        this.contactService = contactService;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.executor = executor;
+    }
+
+    public WorkspaceDTO get(Authentication authentication) {
+        SqlStatistics stats = SqlStatistics.current();
+
+        var projets = read(stats, () -> projetService.getMyProjects(authentication));
+        var actions = read(stats, () -> actionService.getAllByUser(authentication));
+        var assigned = read(stats, () -> actionService.getAssignedToMe(authentication));
+        var contacts = read(stats, () -> contactService.getAllByUser(authentication));
+
+        return new WorkspaceDTO(await(projets), await(actions), await(assigned), await(contacts));
+    }
+
+    // Lecture sur un thread de l'exécuteur, dans une transaction en lecture seule
+    private <T> CompletableFuture<T> read(SqlStatistics stats, Supplier<T> query) {
+        return CompletableFuture.supplyAsync(() -> {
+            SqlStatistics.attach(stats);
+            try {
+                return readOnly.execute(status -> query.get());
+            } finally {
+                SqlStatistics.end();
+            }
+        }, executor);
+    }
+
+    // Attend le résultat et renvoie l'exception d'origine (404, accès refusé...) plutôt que son enveloppe
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.descodeuses.planit.benchmark;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.descodeuses.planit.entity.ActionEntity;
+import com.descodeuses.planit.entity.ContactEntity;
+import com.descodeuses.planit.entity.ProjetEntity;
+import com.descodeuses.planit.entity.UtilisateurEntity;
+
+// Insertion de 10 000 tâches (H2 en mémoire, lots JDBC de 50) selon la génération d'ID
+// - IDENTITY : ancien mapping (identity-orm.xml), un INSERT exécuté par tâche
+// - SEQUENCE : mapping actuel, IDs réservés par blocs de 50 et INSERT envoyés en lots
+// H2 en mémoire n'a pas de latence réseau : le compteur "statements" (ordres JDBC
+// préparés) indique le nombre d'allers-retours qu'aurait la même insertion sur PostgreSQL.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ActionInsertBenchmark {
+
+    private static final int ROWS = 10_000;
+    private static final int BATCH_SIZE = 50;
+
+    @Param({ "IDENTITY", "SEQUENCE" })
+    public String generation;
+
+    private SessionFactory sessionFactory;
+    private Long ownerId;
+
+    // Nombre d'ordres JDBC préparés, publié à côté du temps (total des itérations mesurées)
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Statements {
+        public long statements;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.JAKARTA_JDBC_URL, "jdbc:h2:mem:insert-" + generation + ";DB_CLOSE_DELAY=-1")
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                // Noms de colonnes identiques à ceux de Spring Boot (due_date...)
+                .applySetting(AvailableSettings.PHYSICAL_NAMING_STRATEGY, new CamelCaseToUnderscoresNamingStrategy())
+                .applySetting(AvailableSettings.STATEMENT_BATCH_SIZE, BATCH_SIZE)
+                .applySetting(AvailableSettings.ORDER_INSERTS, true)
+                .applySetting(AvailableSettings.GENERATE_STATISTICS, true)
+                .applySetting(AvailableSettings.LOG_SESSION_METRICS, false)
+                .build();
+        MetadataSources sources = new MetadataSources(registry)
+                .addAnnotatedClasses(ActionEntity.class, ContactEntity.class, ProjetEntity.class,
+                        UtilisateurEntity.class);
+        if ("IDENTITY".equals(generation)) {
+            sources.addResource("benchmark/identity-orm.xml");
+        }
+        sessionFactory = sources.buildMetadata().buildSessionFactory();
+
+        UtilisateurEntity owner = new UtilisateurEntity();
+        owner.setUsername("bench");
+        owner.setPassword("x");
+        owner.setRole("ROLE_USER");
+        sessionFactory.inTransaction(session -> session.persist(owner));
+        ownerId = owner.getId();
+    }
+
+    @Setup(Level.Iteration)
+    public void clear() {
+        sessionFactory.inTransaction(session -> session.createMutationQuery("delete from ActionEntity").executeUpdate());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public void insert10k(Statements counters) {
+        long before = sessionFactory.getStatistics().getPrepareStatementCount();
+        sessionFactory.inTransaction(session -> {
+            UtilisateurEntity owner = session.getReference(UtilisateurEntity.class, ownerId);
+            for (int i = 0; i < ROWS; i++) {
+                ActionEntity action = new ActionEntity();
+                action.setTitle("Tâche " + i);
+                action.setDueDate(LocalDate.of(2030, 1, 1).plusDays(i % 365));
+                action.setPriorite(i % 3 + 1);
+                action.setUtilisateur(owner);
+                session.persist(action);
+
+                // Vide régulièrement le contexte de persistance, comme un import en masse
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    session.flush();
+                    session.clear();
+                    owner = session.getReference(UtilisateurEntity.class, ownerId);
+                }
+            }
+        });
+        counters.statements += sessionFactory.getStatistics().getPrepareStatementCount() - before;
+    }
+}
@@ -0,0 +1,101 @@
+package com.descodeuses.planit.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.descodeuses.planit.security.JwtFilter;
+import com.descodeuses.planit.security.JwtUtil;
+import com.descodeuses.planit.security.UtilisateurPrincipal;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+// Coût de l'authentification JWT d'une requête par JwtFilter
+// - filter : chemin actuel (claims vérifiés une fois puis servis depuis le cache)
+// - filterWithoutCache : même filtre avec un cache de taille 0 (une vérification par requête)
+// - legacyParsing : ancien chemin, 4 parsings complets avec reconstruction de la clé à chaque fois
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    private static final String SECRET_KEY = "YWFhYWFhYWFhYWFhYWFhYWFhYWFhYWFhYWFhYWFhYWE=";
+
+    private JwtFilter filter;
+    private JwtFilter filterWithoutCache;
+    private String token;
+
+    private static JwtFilter newFilter(JwtUtil jwtUtil, UserDetails user) {
+        JwtFilter filter = new JwtFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(filter, "userDetailsService",
+                (org.springframework.security.core.userdetails.UserDetailsService) username -> user);
+        ReflectionTestUtils.setField(filter, "stateless", true);
+        return filter;
+    }
+
+    @Setup
+    public void setUp() {
+        UserDetails user = new UtilisateurPrincipal(1L, "alice", "secret", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        JwtUtil jwtUtil = new JwtUtil(10_000);
+        token = jwtUtil.generateToken(user);
+        filter = newFilter(jwtUtil, user);
+        filterWithoutCache = newFilter(new JwtUtil(0), user);
+    }
+
+    private MockHttpServletResponse run(JwtFilter jwtFilter) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/action");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        jwtFilter.doFilter(request, response, new MockFilterChain());
+        SecurityContextHolder.clearContext();
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse filter() throws Exception {
+        return run(filter);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse filterWithoutCache() throws Exception {
+        return run(filterWithoutCache);
+    }
+
+    // Reproduit les parsings de l'ancien JwtFilter : extractUsername, validateToken (x2), lecture des rôles
+    @Benchmark
+    public void legacyParsing(Blackhole blackhole) {
+        for (int i = 0; i < 4; i++) {
+            Claims claims = Jwts.parserBuilder()
+                    .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY)))
+                    .build()
+                    .parseClaimsJws(token)
+                    .getBody();
+            blackhole.consume(claims);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.descodeuses.planit.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.descodeuses.planit.security.JwtUtil;
+import com.descodeuses.planit.security.UtilisateurPrincipal;
+
+// Coût unitaire de JwtUtil
+// - generateToken : signature HMAC d'un nouveau token (login)
+// - validateToken : vérification servie par le cache de claims
+// - validateTokenWithoutCache : vérification complète de la signature à chaque appel
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private UserDetails user;
+    private JwtUtil jwtUtil;
+    private JwtUtil jwtUtilWithoutCache;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        user = new UtilisateurPrincipal(1L, "alice", "secret", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        jwtUtil = new JwtUtil(10_000);
+        jwtUtilWithoutCache = new JwtUtil(0);
+        token = jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtil.validateToken(token, user);
+    }
+
+    @Benchmark
+    public boolean validateTokenWithoutCache() {
+        return jwtUtilWithoutCache.validateToken(token, user);
+    }
+}
@@ -0,0 +1,56 @@
+package com.descodeuses.planit.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.descodeuses.planit.service.WatermarkService.Watermark;
+
+class ETagsTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private List<String> load() {
+        loads.incrementAndGet();
+        return List.of("Tâche");
+    }
+
+    @Test
+    void matchingIfNoneMatchAnswers304WithoutLoadingTheList() {
+        String etag = ETags.of("action", new Watermark(7L, 12));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/action");
+        request.addHeader("If-None-Match", etag);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        ResponseEntity<List<String>> result = ETags.conditional(new ServletWebRequest(request, response), etag,
+                this::load);
+
+        assertThat(result).isNull();
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getHeader("ETag")).isEqualTo(etag);
+        assertThat(loads).hasValue(0);
+    }
+
+    @Test
+    void staleIfNoneMatchReturnsTheListWithTheNewETag() {
+        String etag = ETags.of("action", new Watermark(7L, 13));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/action");
+        request.addHeader("If-None-Match", ETags.of("action", new Watermark(7L, 12)));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        ResponseEntity<List<String>> result = ETags.conditional(new ServletWebRequest(request, response), etag,
+                this::load);
+
+        assertThat(result.getStatusCode().value()).isEqualTo(200);
+        assertThat(result.getHeaders().getETag()).isEqualTo("\"action-7-13\"");
+        assertThat(result.getBody()).containsExactly("Tâche");
+        assertThat(loads).hasValue(1);
+    }
+}
@@ -0,0 +1,51 @@
+package com.descodeuses.planit.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+
+class SqlMetricsFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SqlMetricsFilter filter = new SqlMetricsFilter(registry);
+    private final SqlCountingStatementInspector inspector = new SqlCountingStatementInspector();
+
+    @Test
+    void recordsStatementCountPerRoute() throws Exception {
+        // Simule un contrôleur qui exécute 3 ordres SQL
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void service(jakarta.servlet.http.HttpServletRequest req,
+                    jakarta.servlet.http.HttpServletResponse resp) {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/action/{id}");
+                inspector.inspect("select 1");
+                inspector.inspect("select 2");
+                inspector.inspect("select 3");
+            }
+        };
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/action/42");
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(servlet));
+
+        DistributionSummary statements = registry.get("planit.http.sql.statements")
+                .tag("uri", "/api/action/{id}")
+                .tag("method", "GET")
+                .summary();
+        assertThat(statements.count()).isEqualTo(1);
+        assertThat(statements.totalAmount()).isEqualTo(3);
+        assertThat(registry.get("planit.http.sql.time").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void ignoresStatementsOutsideRequests() {
+        inspector.inspect("select 1");
+        assertThat(registry.find("planit.http.sql.statements").summary()).isNull();
+    }
+}
@@ -0,0 +1,45 @@
+package com.descodeuses.planit.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class VirtualThreadPinningMonitorTest {
+
+    private final Object lock = new Object();
+
+    @Test
+    void blockingInsideSynchronizedIsCounted() throws InterruptedException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(registry, 10);
+        monitor.start();
+        try {
+            // Attente bloquante dans un bloc synchronized : le thread virtuel reste sur son porteur
+            Thread.ofVirtual().start(() -> {
+                synchronized (lock) {
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }).join();
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (pinned(registry) == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertThat(pinned(registry)).isEqualTo(1);
+            assertThat(registry.get("planit.vthreads.pinned").counter().getId().getTag("frame"))
+                    .startsWith(VirtualThreadPinningMonitorTest.class.getName());
+        } finally {
+            monitor.stop();
+        }
+    }
+
+    private static double pinned(SimpleMeterRegistry registry) {
+        return registry.find("planit.vthreads.pinned").counters().stream().mapToDouble(c -> c.count()).sum();
+    }
+}
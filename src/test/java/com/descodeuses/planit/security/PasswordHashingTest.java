@@ -0,0 +1,38 @@
+package com.descodeuses.planit.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+class PasswordHashingTest {
+
+    @Test
+    void strengthIsTheHighestUnderTargetWithinBounds() {
+        // 60 ms au coût 10 : 120 ms au coût 11, 240 ms au coût 12, 480 ms au coût 13
+        assertThat(PasswordHashing.strengthFor(60, 250, 10, 14)).isEqualTo(12);
+        assertThat(PasswordHashing.strengthFor(60, 10, 10, 14)).isEqualTo(10);
+        assertThat(PasswordHashing.strengthFor(1, 10_000, 10, 14)).isEqualTo(14);
+    }
+
+    @Test
+    void legacyAndWeakerHashesMatchButAreUpgraded() {
+        PasswordEncoder encoder = PasswordHashing.encoder(5);
+        String legacy = new BCryptPasswordEncoder(5).encode("secretpw");
+        String weaker = PasswordHashing.encoder(4).encode("secretpw");
+        String stronger = PasswordHashing.encoder(6).encode("secretpw");
+        String current = encoder.encode("secretpw");
+
+        assertThat(current).startsWith("{bcrypt}$2a$05$");
+        assertThat(encoder.matches("secretpw", legacy)).isTrue();
+        assertThat(encoder.matches("secretpw", weaker)).isTrue();
+        assertThat(encoder.matches("wrong", legacy)).isFalse();
+
+        // Ancien format sans préfixe ou coût inférieur : ré-encodé ; coût supérieur : conservé
+        assertThat(encoder.upgradeEncoding(legacy)).isTrue();
+        assertThat(encoder.upgradeEncoding(weaker)).isTrue();
+        assertThat(encoder.upgradeEncoding(stronger)).isFalse();
+        assertThat(encoder.upgradeEncoding(current)).isFalse();
+    }
+}
@@ -0,0 +1,55 @@
+package com.descodeuses.planit.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.descodeuses.planit.dto.ActionDTO;
+import com.descodeuses.planit.entity.ActionEntity;
+
+// Coût de ActionService.convertToDTO pour une page de 100 tâches,
+// selon le nombre de contacts membres et d'utilisateurs assignés par tâche
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ActionConversionBenchmark {
+
+    private static final int ROWS = 100;
+
+    @Param({ "0", "5", "20" })
+    public int fanOut;
+
+    private ActionService service;
+    private List<ActionEntity> actions;
+
+    @Setup
+    public void setUp() {
+        // La conversion n'utilise aucun repository
+        service = new ActionService(null, null, null, null, null, null, null, null);
+        actions = ActionFixtures.actions(ROWS, fanOut, fanOut);
+    }
+
+    @Benchmark
+    public List<ActionDTO> convertToDTO() {
+        List<ActionDTO> dtos = new ArrayList<>(actions.size());
+        for (ActionEntity action : actions) {
+            dtos.add(service.convertToDTO(action));
+        }
+        return dtos;
+    }
+}
@@ -0,0 +1,122 @@
+package com.descodeuses.planit.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.descodeuses.planit.dto.ActionDTO;
+
+import com.descodeuses.planit.service.WatermarkService.Watermark;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ActionEventStreamTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ActionEventStream stream = new ActionEventStream(registry, 10, 60_000, 2, 1, false);
+
+    @AfterEach
+    void tearDown() {
+        stream.destroy();
+    }
+
+    @Test
+    void oldestConnectionIsClosedAboveThePerUserLimit() {
+        for (int i = 0; i < 3; i++) {
+            stream.subscribe(new Watermark(1L, 0));
+        }
+        stream.subscribe(new Watermark(2L, 0));
+
+        assertThat(stream.getConnectionCount()).isEqualTo(3);
+    }
+
+    @Test
+    void eventsAreOnlySentToRecipients() throws Exception {
+        stream.subscribe(new Watermark(1L, 0));
+        stream.subscribe(new Watermark(2L, 0));
+
+        stream.onChange(new ActionChangeEvent(ActionChangeEvent.Type.DELETED, 42L, null, Set.of(1L, 3L)));
+        stream.heartbeat();
+
+        // 2 "ready" + 1 suppression + 2 heartbeats ; rien pour l'utilisateur 3, non connecté
+        Counter sent = registry.get("planit.sse.events").counter();
+        for (int i = 0; i < 100 && sent.count() < 5; i++) {
+            Thread.sleep(20);
+        }
+        Thread.sleep(50);
+        assertThat(sent.count()).isEqualTo(5);
+    }
+
+    @Test
+    void sameEventIsDeliveredToEverySubscriber() throws Exception {
+        stream.subscribe(new Watermark(1L, 0));
+        stream.subscribe(new Watermark(1L, 0));
+        stream.subscribe(new Watermark(2L, 0));
+
+        for (long id = 1; id <= 5; id++) {
+            stream.onChange(new ActionChangeEvent(ActionChangeEvent.Type.DELETED, id, null, Set.of(1L, 2L)));
+        }
+
+        // 3 "ready" + 5 suppressions pour chacun des 3 abonnés, envoyées en parallèle
+        Counter sent = registry.get("planit.sse.events").counter();
+        for (int i = 0; i < 100 && sent.count() < 18; i++) {
+            Thread.sleep(20);
+        }
+        Thread.sleep(50);
+        assertThat(sent.count()).isEqualTo(18);
+        assertThat(stream.getConnectionCount()).isEqualTo(3);
+    }
+
+    @Test
+    void removedAssigneeOnlyReceivesTheTaskId() throws Exception {
+        // Données envoyées par connexion (texte SSE et objets sérialisés)
+        Map<Long, List<Object>> received = new ConcurrentHashMap<>();
+        ActionEventStream capturing = new ActionEventStream(registry, 10, 60_000, 2, 1, false) {
+            private long nextUser = 1;
+
+            @Override
+            SseEmitter createEmitter(long timeoutMs) {
+                List<Object> data = received.computeIfAbsent(nextUser++, id -> new CopyOnWriteArrayList<>());
+                return new SseEmitter(timeoutMs) {
+                    @Override
+                    public synchronized void send(Set<DataWithMediaType> items) {
+                        items.forEach(item -> data.add(item.getData()));
+                    }
+                };
+            }
+        };
+        try {
+            for (long userId = 1; userId <= 3; userId++) {
+                capturing.subscribe(new Watermark(userId, 0));
+            }
+
+            // Même modification : titre changé et utilisateur 3 retiré des assignés
+            ActionDTO action = new ActionDTO(42L, "Budget confidentiel", false, null, "Détails", 1);
+            action.setUtilisateurId(1L);
+            action.setAssignedUserIds(Set.of(2L));
+            capturing.onChange(new ActionChangeEvent(ActionChangeEvent.Type.UPDATED, 42L, action, Set.of(1L, 2L, 3L)));
+
+            Counter sent = registry.get("planit.sse.events").counter();
+            for (int i = 0; i < 100 && sent.count() < 6; i++) {
+                Thread.sleep(20);
+            }
+            assertThat(sent.count()).isEqualTo(6);
+
+            assertThat(received.get(1L)).contains(action);
+            assertThat(received.get(2L)).contains(action);
+            assertThat(received.get(3L)).doesNotContain(action).contains("event:deleted\ndata:", Map.of("id", 42L));
+        } finally {
+            capturing.destroy();
+        }
+    }
+}
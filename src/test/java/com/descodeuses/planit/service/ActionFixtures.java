@@ -0,0 +1,83 @@
+package com.descodeuses.planit.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.descodeuses.planit.entity.ActionEntity;
+import com.descodeuses.planit.entity.ContactEntity;
+import com.descodeuses.planit.entity.ProjetEntity;
+import com.descodeuses.planit.entity.UtilisateurEntity;
+
+// Jeux de données en mémoire pour les benchmarks : tâches avec projet, propriétaire,
+// contacts membres et utilisateurs assignés (sans base de données)
+final class ActionFixtures {
+
+    private ActionFixtures() {
+    }
+
+    static UtilisateurEntity utilisateur(long id) {
+        UtilisateurEntity user = new UtilisateurEntity();
+        user.setId(id);
+        user.setUsername("user" + id);
+        user.setName("Prénom " + id);
+        user.setSurname("Nom " + id);
+        user.setGenre(id % 2 == 0 ? "F" : "M");
+        return user;
+    }
+
+    static ContactEntity contact(long id, UtilisateurEntity owner) {
+        ContactEntity contact = new ContactEntity();
+        contact.setId(id);
+        contact.setNom("Nom " + id);
+        contact.setPrenom("Prénom " + id);
+        contact.setEmail("contact" + id + "@example.com");
+        contact.setTel("06" + String.format("%08d", id));
+        contact.setUtilisateur(owner);
+        return contact;
+    }
+
+    // rows tâches, chacune avec `members` contacts et `assignees` utilisateurs assignés
+    static List<ActionEntity> actions(int rows, int members, int assignees) {
+        UtilisateurEntity owner = utilisateur(1);
+
+        List<ContactEntity> contacts = new ArrayList<>();
+        for (int i = 0; i < Math.max(members, 1) * 4; i++) {
+            contacts.add(contact(i + 1, owner));
+        }
+        List<UtilisateurEntity> users = new ArrayList<>();
+        for (int i = 0; i < Math.max(assignees, 1) * 4; i++) {
+            users.add(utilisateur(i + 2));
+        }
+        List<ProjetEntity> projets = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ProjetEntity projet = new ProjetEntity();
+            projet.setId((long) i + 1);
+            projet.setTitle("Projet " + (i + 1));
+            projet.setDescription("Description du projet " + (i + 1));
+            projet.setUtilisateur(owner);
+            projets.add(projet);
+        }
+
+        List<ActionEntity> actions = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            ActionEntity action = new ActionEntity();
+            action.setId((long) i + 1);
+            action.setTitle("Tâche " + (i + 1));
+            action.setCompleted(i % 3 == 0);
+            action.setDueDate(LocalDate.of(2025, 1, 1).plusDays(i % 365));
+            action.setTextarea("Détails de la tâche " + (i + 1));
+            action.setPriorite(i % 3 + 1);
+            action.setUtilisateur(owner);
+            action.setProjet(projets.get(i % projets.size()));
+            for (int m = 0; m < members; m++) {
+                action.getMembers().add(contacts.get((i + m) % contacts.size()));
+            }
+            for (int a = 0; a < assignees; a++) {
+                action.getUtilisateursAssignes().add(users.get((i + a) % users.size()));
+            }
+            actions.add(action);
+        }
+        return actions;
+    }
+}
@@ -0,0 +1,725 @@
+package com.descodeuses.planit.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.descodeuses.planit.dto.ActionBatchOperationDTO;
+import com.descodeuses.planit.dto.ActionBatchResultDTO;
+import com.descodeuses.planit.dto.ActionChangesDTO;
+import com.descodeuses.planit.dto.ActionDTO;
+import com.descodeuses.planit.dto.ActionFilterDTO;
+import com.descodeuses.planit.dto.ActionPageDTO;
+import com.descodeuses.planit.dto.ActionStatsDTO;
+import com.descodeuses.planit.dto.ActionSummaryDTO;
+import com.descodeuses.planit.dto.ContactDTO;
+import com.descodeuses.planit.dto.ProjetDTO;
+import com.descodeuses.planit.entity.ActionEntity;
+import com.descodeuses.planit.entity.ContactEntity;
+import com.descodeuses.planit.entity.ProjetEntity;
+import com.descodeuses.planit.entity.UtilisateurEntity;
+import com.descodeuses.planit.exception.BadRequestException;
+import com.descodeuses.planit.exception.VersionConflictException;
+import com.descodeuses.planit.repository.CachedEntityLoader;
+import com.descodeuses.planit.security.CaffeineUserCache;
+import com.descodeuses.planit.security.UtilisateurPrincipal;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.jpa.properties.hibernate.order_updates=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.descodeuses.planit.service.SqlCaptureInspector"
+})
+@Import({ ActionService.class, ActionStatsService.class, TypeAheadService.class, ActionSearchConfig.class, ActionSearchListener.class, ContactService.class, ProjetService.class, UserService.class, CurrentUserResolver.class, CachedEntityLoader.class, CaffeineUserCache.class,
+        WatermarkService.class, TombstonePurger.class, ActionServiceTest.Config.class })
+@RecordApplicationEvents
+class ActionServiceTest {
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        PasswordEncoder passwordEncoder() {
+            return new BCryptPasswordEncoder();
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private ActionService service;
+
+    @Autowired
+    private ContactService contactService;
+
+    @Autowired
+    private ProjetService projetService;
+
+    @Autowired
+    private ActionStatsService statsService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CachedEntityLoader entities;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private WatermarkService watermarks;
+
+    @Autowired
+    private TombstonePurger purger;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    private Statistics statistics;
+
+    private UtilisateurEntity utilisateur(String username) {
+        UtilisateurEntity user = new UtilisateurEntity();
+        user.setUsername(username);
+        user.setPassword("x");
+        user.setRole("ROLE_USER");
+        return em.persist(user);
+    }
+
+    // Crée un jeu de tâches avec plusieurs membres et utilisateurs assignés chacune
+    private void createActions(UtilisateurEntity owner, int count) {
+        ProjetEntity projet = new ProjetEntity(null, "Projet", "desc");
+        projet.setUtilisateur(owner);
+        em.persist(projet);
+
+        List<UtilisateurEntity> assignees = List.of(utilisateur(owner.getUsername() + "-a1"),
+                utilisateur(owner.getUsername() + "-a2"));
+
+        for (int i = 0; i < count; i++) {
+            ContactEntity c1 = new ContactEntity(null, "Nom" + i, "Prenom", "c1@test.fr", "0600000000");
+            ContactEntity c2 = new ContactEntity(null, "Nom" + i, "Prenom", "c2@test.fr", "0600000000");
+            c1.setUtilisateur(owner);
+            c2.setUtilisateur(owner);
+            em.persist(c1);
+            em.persist(c2);
+
+            ActionEntity action = new ActionEntity();
+            action.setTitle("Tâche " + i);
+            action.setDueDate(LocalDate.now().plusDays(i));
+            action.setUtilisateur(owner);
+            action.setProjet(i % 2 == 0 ? projet : null);
+            action.getMembers().add(c1);
+            action.getMembers().add(c2);
+            action.getUtilisateursAssignes().addAll(assignees);
+            em.persist(action);
+        }
+    }
+
+    private long countStatements(Runnable runnable) {
+        em.flush();
+        em.clear();
+        statistics.clear();
+        runnable.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    @BeforeEach
+    void setUp() {
+        statistics = em.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void getAllByUserUsesAFixedNumberOfStatements() {
+        UtilisateurEntity small = utilisateur("small");
+        UtilisateurEntity large = utilisateur("large");
+        createActions(small, 3);
+        createActions(large, 60);
+
+        Authentication smallAuth = new TestingAuthenticationToken("small", null);
+        Authentication largeAuth = new TestingAuthenticationToken("large", null);
+
+        long smallCount = countStatements(() -> assertThat(service.getAllByUser(smallAuth)).hasSize(3));
+        long largeCount = countStatements(() -> {
+            List<ActionDTO> dtos = service.getAllByUser(largeAuth);
+            assertThat(dtos).hasSize(60);
+            assertThat(dtos).allSatisfy(dto -> {
+                assertThat(dto.getMembres()).hasSize(2);
+                assertThat(dto.getUtilisateursAssignes()).hasSize(2);
+            });
+        });
+
+        // utilisateur + tâches + membres + utilisateurs assignés
+        assertThat(smallCount).isEqualTo(4);
+        assertThat(largeCount).isEqualTo(4);
+
+        // Avec l'id issu du token, l'utilisateur n'est plus relu en base
+        Authentication tokenAuth = new TestingAuthenticationToken(
+                new UtilisateurPrincipal(large.getId(), "large", "", List.of()), null);
+        assertThat(countStatements(() -> assertThat(service.getAllByUser(tokenAuth)).hasSize(60)))
+                .isEqualTo(3);
+    }
+
+    @Test
+    void getAssignedToMeUsesAFixedNumberOfStatements() {
+        UtilisateurEntity me = utilisateur("assigned");
+        // Tâches de plusieurs propriétaires, chacun avec son projet
+        for (int o = 0; o < 20; o++) {
+            UtilisateurEntity owner = utilisateur("assigner" + o);
+            ProjetEntity projet = new ProjetEntity(null, "Projet " + o, null);
+            projet.setUtilisateur(owner);
+            em.persist(projet);
+            for (int i = 0; i < 3; i++) {
+                ActionEntity action = new ActionEntity();
+                action.setTitle("Tâche " + i);
+                action.setUtilisateur(owner);
+                action.setProjet(projet);
+                action.getUtilisateursAssignes().add(me);
+                em.persist(action);
+            }
+        }
+
+        // tâches (avec propriétaire et projet) + membres + utilisateurs assignés
+        Authentication tokenAuth = new TestingAuthenticationToken(
+                new UtilisateurPrincipal(me.getId(), "assigned", "", List.of()), null);
+        assertThat(countStatements(() -> assertThat(service.getAssignedToMe(tokenAuth))
+                .hasSize(60)
+                .allSatisfy(dto -> assertThat(dto.getUtilisateursAssignes()).hasSize(1))))
+                .isEqualTo(3);
+    }
+
+    @Test
+    void summariesAreReadWithoutHydratingActions() {
+        UtilisateurEntity owner = utilisateur("summary");
+        createActions(owner, 20);
+        Authentication auth = new TestingAuthenticationToken("summary", null);
+
+        List<ActionSummaryDTO> summaries = new ArrayList<>();
+        long statements = countStatements(() -> summaries.addAll(service.getSummariesByUser(auth)));
+
+        assertThat(summaries).hasSize(20);
+        assertThat(summaries.get(0).getProjetId()).isNotNull();
+        // utilisateur + une seule requête de projection
+        assertThat(statements).isEqualTo(2);
+        // seul l'utilisateur connecté est chargé, aucune tâche ni collection
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(1);
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+    }
+
+    @Test
+    void pagesWalkDatedThenUndatedTasksWithoutGapsOrDuplicates() {
+        UtilisateurEntity owner = utilisateur("pager");
+        for (int i = 0; i < 7; i++) {
+            ActionEntity action = new ActionEntity();
+            action.setTitle("Tâche " + i);
+            // deux tâches partagent chaque échéance, la dernière n'en a pas
+            action.setDueDate(i < 5 ? LocalDate.of(2030, 1, 1 + i / 2) : null);
+            action.setCompleted(i % 2 == 0);
+            action.setUtilisateur(owner);
+            em.persist(action);
+        }
+        em.flush();
+        em.clear();
+
+        Authentication auth = new TestingAuthenticationToken("pager", null);
+        ActionFilterDTO filter = new ActionFilterDTO();
+
+        List<String> titles = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            ActionPageDTO page = service.getPageByUser(auth, filter, cursor, 2);
+            page.getItems().forEach(dto -> titles.add(dto.getTitle()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(4);
+        assertThat(titles).containsExactly("Tâche 0", "Tâche 1", "Tâche 2", "Tâche 3", "Tâche 4", "Tâche 5",
+                "Tâche 6");
+
+        filter.setCompleted(true);
+        filter.setDueTo(LocalDate.of(2030, 1, 2));
+        assertThat(service.getPageByUser(auth, filter, null, 10).getItems())
+                .extracting(ActionDTO::getTitle)
+                .containsExactly("Tâche 0", "Tâche 2");
+    }
+
+    @Test
+    void batchAppliesAllOperationsWithBatchedWrites() {
+        UtilisateurEntity owner = utilisateur("batcher");
+        createActions(owner, 3);
+        UtilisateurEntity other = utilisateur("other");
+        createActions(other, 1);
+        em.flush();
+        List<Long> ownIds = em.getEntityManager()
+                .createQuery("select a.id from ActionEntity a where a.utilisateur = :u order by a.id", Long.class)
+                .setParameter("u", owner).getResultList();
+        Long otherId = em.getEntityManager()
+                .createQuery("select a.id from ActionEntity a where a.utilisateur = :u", Long.class)
+                .setParameter("u", other).getSingleResult();
+
+        List<ActionBatchOperationDTO> operations = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            operations.add(operation("create", null,
+                    new ActionDTO(null, "Nouvelle " + i, false, LocalDate.of(2030, 1, 1), null, 1), null));
+        }
+        operations.add(operation("patch", ownIds.get(0), null, Map.of("completed", true)));
+        operations.add(operation("patch", ownIds.get(1), null, Map.of("couleur", "rouge")));
+        operations.add(operation("delete", ownIds.get(2), null, null));
+        operations.add(operation("delete", otherId, null, null));
+        operations.add(operation("archive", ownIds.get(0), null, null));
+
+        Authentication auth = new TestingAuthenticationToken("batcher", null);
+        List<ActionBatchResultDTO> results = new ArrayList<>();
+        long statements = countStatements(() -> {
+            results.addAll(service.batch(operations, auth));
+            em.flush();
+        });
+
+        assertThat(results).hasSize(25);
+        assertThat(results.subList(0, 20)).allSatisfy(r -> {
+            assertThat(r.getStatus()).isEqualTo(201);
+            assertThat(r.getId()).isNotNull();
+        });
+        assertThat(results.subList(20, 25)).extracting(ActionBatchResultDTO::getStatus)
+                .containsExactly(200, 400, 204, 404, 400);
+        assertThat(results.get(20).getAction().getCompleted()).isTrue();
+
+        // Lectures groupées (utilisateur, tâches, membres, assignés, séquence), compteur de
+        // modifications puis écritures en lots : le nombre d'ordres ne dépend pas du nombre de créations
+        assertThat(statements).isLessThan(20);
+
+        em.clear();
+        assertThat(em.find(ActionEntity.class, ownIds.get(0)).getCompleted()).isTrue();
+        assertThat(em.find(ActionEntity.class, ownIds.get(2))).isNull();
+        assertThat(em.find(ActionEntity.class, otherId)).isNotNull();
+        assertThat(service.getAllByUser(auth)).hasSize(22);
+    }
+
+    @Test
+    void patchChangesOnlyWhatIsSentAndDiffsJoinTables() {
+        UtilisateurEntity owner = utilisateur("patcher");
+        createActions(owner, 1);
+        ContactEntity extra = new ContactEntity(null, "Extra", "Prenom", "extra@test.fr", "0600000000");
+        extra.setUtilisateur(owner);
+        em.persist(extra);
+        ActionEntity action = em.getEntityManager()
+                .createQuery("select a from ActionEntity a where a.utilisateur = :u", ActionEntity.class)
+                .setParameter("u", owner).getSingleResult();
+        Long keptId = action.getMembers().iterator().next().getId();
+        Long actionId = action.getId();
+        Authentication auth = new TestingAuthenticationToken("patcher", null);
+
+        // Statut seul : aucune écriture dans les tables de jointure
+        countStatements(() -> {
+            ActionDTO dto = service.patch(actionId, Map.of("completed", true), null, auth);
+            assertThat(dto.getCompleted()).isTrue();
+            assertThat(dto.getUtilisateursAssignes()).hasSize(2);
+            em.flush();
+        });
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(1);
+        assertThat(statistics.getCollectionUpdateCount()).isZero();
+        assertThat(statistics.getCollectionRecreateCount()).isZero();
+
+        // Membres : un retiré, un ajouté, sans recréer la collection
+        Map<String, Object> changes = new HashMap<>();
+        changes.put("memberIds", List.of(keptId, extra.getId()));
+        changes.put("dueDate", null);
+        countStatements(() -> {
+            service.patch(actionId, changes, null, auth);
+            em.flush();
+        });
+        assertThat(statistics.getCollectionUpdateCount()).isEqualTo(1);
+        assertThat(statistics.getCollectionRecreateCount()).isZero();
+        assertThat(statistics.getCollectionRemoveCount()).isZero();
+
+        em.clear();
+        ActionEntity patched = em.find(ActionEntity.class, actionId);
+        assertThat(patched.getCompleted()).isTrue();
+        assertThat(patched.getDueDate()).isNull();
+        assertThat(patched.getTitle()).isEqualTo("Tâche 0");
+        assertThat(patched.getMembers()).extracting(ContactEntity::getId)
+                .containsExactlyInAnyOrder(keptId, extra.getId());
+        assertThat(patched.getUtilisateursAssignes()).hasSize(2);
+    }
+
+    @Test
+    void updatesWriteOnlyChangedColumns() {
+        UtilisateurEntity owner = utilisateur("editor");
+        ActionEntity action = new ActionEntity();
+        action.setTitle("Rédiger le rapport");
+        action.setTextarea("x".repeat(200));
+        action.setUtilisateur(owner);
+        em.persist(action);
+        ContactEntity contact = new ContactEntity(null, "Nom", "Prenom", "c@test.fr", "0600000000");
+        contact.setUtilisateur(owner);
+        em.persist(contact);
+        em.flush();
+        em.clear();
+        SqlCaptureInspector.clear();
+        Authentication auth = new TestingAuthenticationToken("editor", null);
+
+        // PUT complet où seul "completed" change : la description n'est pas renvoyée à la base
+        ActionDTO dto = service.getActionById(action.getId(), auth);
+        dto.setCompleted(true);
+        service.update(action.getId(), dto, null, auth);
+        ContactDTO contactDTO = new ContactDTO(contact.getId(), "Nom", "Prenom", "c@test.fr", "0700000000");
+        contactService.update(contact.getId(), contactDTO, null, auth);
+        em.flush();
+
+        assertThat(SqlCaptureInspector.updatesOf("todo")).singleElement()
+                .satisfies(sql -> assertThat(sql).contains("completed").doesNotContain("textarea", "title"));
+        assertThat(SqlCaptureInspector.updatesOf("contact")).singleElement()
+                .satisfies(sql -> assertThat(sql).contains("tel").doesNotContain("nom", "email"));
+    }
+
+    @Test
+    void staleVersionIsRejectedWithTheCurrentState() {
+        UtilisateurEntity owner = utilisateur("locker");
+        ActionEntity action = new ActionEntity();
+        action.setTitle("Préparer la réunion");
+        action.setUtilisateur(owner);
+        em.persist(action);
+        em.flush();
+        em.clear();
+        Authentication auth = new TestingAuthenticationToken("locker", null);
+
+        // Deux clients lisent la même version, le premier écrit (version + 1)
+        Long readVersion = service.getActionById(action.getId(), auth).getVersion();
+        ActionDTO first = service.patch(action.getId(), Map.of("completed", true), readVersion, auth);
+        assertThat(first.getVersion()).isEqualTo(readVersion + 1);
+
+        // Le second, resté sur l'ancienne version, est refusé sans rien écraser
+        assertThatThrownBy(() -> service.patch(action.getId(), Map.of("title", "Écrasé"), readVersion, auth))
+                .isInstanceOfSatisfying(VersionConflictException.class, e -> {
+                    assertThat(e.getCurrentVersion()).isEqualTo(first.getVersion());
+                    assertThat(((ActionDTO) e.getCurrent()).getCompleted()).isTrue();
+                });
+
+        // Dans un lot, le conflit devient un résultat 409 avec l'état actuel
+        ActionBatchOperationDTO stale = operation("delete", action.getId(), null, null);
+        stale.setVersion(readVersion);
+        assertThat(service.batch(List.of(stale), auth)).singleElement().satisfies(r -> {
+            assertThat(r.getStatus()).isEqualTo(409);
+            assertThat(r.getAction().getVersion()).isEqualTo(first.getVersion());
+        });
+
+        em.flush();
+        em.clear();
+        assertThat(em.find(ActionEntity.class, action.getId()).getTitle()).isEqualTo("Préparer la réunion");
+    }
+
+    @Test
+    void listWatermarkMovesWithEveryWriteAndIsReadAlone() {
+        UtilisateurEntity owner = utilisateur("poller");
+        em.flush();
+        Authentication auth = new TestingAuthenticationToken("poller", null);
+        assertThat(watermarks.current(auth).version()).isZero();
+
+        ActionDTO created = service.create(new ActionDTO(null, "Appeler", false, null, null, 1), auth);
+        service.patch(created.getId(), Map.of("completed", true), null, auth);
+        ContactDTO contact = contactService.create(new ContactDTO(null, "Nom", "Prenom", "c@test.fr", "06"), auth);
+        contactService.delete(contact.getId(), auth);
+        service.delete(created.getId(), auth);
+
+        // Avec le token JWT, lire le compteur (ETag des listes) = une requête, aucune entité chargée
+        Authentication tokenAuth = new TestingAuthenticationToken(
+                new UtilisateurPrincipal(owner.getId(), "poller", "", List.of()), null);
+        assertThat(countStatements(() -> assertThat(watermarks.current(tokenAuth))
+                .isEqualTo(new WatermarkService.Watermark(owner.getId(), 5)))).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void myProjectsAreOwnedOrSharedOnesInOneQuery() {
+        UtilisateurEntity me = utilisateur("me");
+        UtilisateurEntity other = utilisateur("other");
+        ProjetEntity owned = new ProjetEntity(null, "A moi", null);
+        owned.setUtilisateur(me);
+        // Propriétaire et membre à la fois : une seule fois dans le résultat
+        owned.getMembres().add(me);
+        owned.getMembres().add(other);
+        ProjetEntity shared = new ProjetEntity(null, "Partagé", null);
+        shared.setUtilisateur(other);
+        shared.getMembres().add(me);
+        ProjetEntity foreign = new ProjetEntity(null, "Autre", null);
+        foreign.setUtilisateur(other);
+        foreign.getMembres().add(other);
+        em.persist(owned);
+        em.persist(shared);
+        em.persist(foreign);
+
+        Authentication tokenAuth = new TestingAuthenticationToken(
+                new UtilisateurPrincipal(me.getId(), "me", "", List.of()), null);
+        assertThat(countStatements(() -> assertThat(projetService.getMyProjects(tokenAuth))
+                .extracting(ProjetDTO::getTitle).containsExactly("A moi", "Partagé"))).isEqualTo(1);
+    }
+
+    @Test
+    void referenceDataIsServedFromSecondLevelCache() {
+        // Lignes insérées hors Hibernate : il ne met pas en cache une entité insérée par la transaction en cours
+        jdbc.update("insert into utilisateur (id, username, password, role) values (900001, 'l2', 'x', 'ROLE_USER')");
+        List<Long> ids = List.of(900011L, 900012L, 900013L);
+        for (Long id : ids) {
+            jdbc.update("insert into contact (id, nom, prenom, utilisateur_id, version) values (?, 'Nom', 'Prenom', 900001, 0)",
+                    id);
+        }
+
+        assertThat(countStatements(() -> assertThat(entities.findAllById(ContactEntity.class, ids)).hasSize(3)))
+                .isEqualTo(1);
+        // Autre transaction (comme une requête suivante) : elle ne voit pas les lignes non validées,
+        // contacts et propriétaire ne peuvent venir que du cache, sans aucun ordre SQL
+        TransactionTemplate next = new TransactionTemplate(transactionManager);
+        next.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        assertThat(countStatements(() -> next.executeWithoutResult(status -> assertThat(
+                entities.findAllById(ContactEntity.class, ids))
+                .extracting(c -> c.getUtilisateur().getUsername()).containsExactly("l2", "l2", "l2"))))
+                .isZero();
+        assertThat(statistics.getDomainDataRegionStatistics("contact").getHitCount()).isEqualTo(3);
+    }
+
+    @Test
+    void deletedUserLeavesSharedProjectsAndCachedMemberLists() {
+        UtilisateurEntity owner = utilisateur("l2-owner");
+        UtilisateurEntity member = utilisateur("l2-member");
+        ProjetEntity shared = new ProjetEntity(null, "Partagé", null);
+        shared.setUtilisateur(owner);
+        shared.getMembres().add(member);
+        em.persist(shared);
+        // Tâche du propriétaire rangée dans un projet du membre supprimé
+        ProjetEntity memberProjet = new ProjetEntity(null, "Du membre", null);
+        memberProjet.setUtilisateur(member);
+        em.persist(memberProjet);
+        ActionEntity action = new ActionEntity();
+        action.setTitle("Tâche");
+        action.setUtilisateur(owner);
+        action.setProjet(memberProjet);
+        em.persist(action);
+        em.flush();
+        em.clear();
+
+        // Liste des membres mise en cache
+        assertThat(em.find(ProjetEntity.class, shared.getId()).getMembres())
+                .extracting(UtilisateurEntity::getUsername).containsExactly("l2-member");
+        em.clear();
+
+        userService.delete(member.getId());
+        em.flush();
+        em.clear();
+
+        assertThat(em.find(ProjetEntity.class, shared.getId()).getMembres()).isEmpty();
+        assertThat(em.find(ActionEntity.class, action.getId()).getProjet()).isNull();
+        assertThat(em.find(UtilisateurEntity.class, member.getId())).isNull();
+    }
+
+    @Test
+    void statsAreGroupedInSqlAndRecomputedOnlyAfterWrites() {
+        UtilisateurEntity owner = utilisateur("stats");
+        ProjetEntity projet = new ProjetEntity(null, "Projet", null);
+        projet.setUtilisateur(owner);
+        em.persist(projet);
+        LocalDate today = LocalDate.now();
+        Object[][] tasks = {
+                { projet, 1, today.minusDays(1), false }, // en retard
+                { projet, 1, today, true },               // terminée
+                { null, 2, today.plusDays(3), false },    // dans la semaine
+                { null, null, null, false },              // sans échéance
+        };
+        for (Object[] task : tasks) {
+            ActionEntity action = new ActionEntity();
+            action.setTitle("Tâche");
+            action.setUtilisateur(owner);
+            action.setProjet((ProjetEntity) task[0]);
+            action.setPriorite((Integer) task[1]);
+            action.setDueDate((LocalDate) task[2]);
+            action.setCompleted((Boolean) task[3]);
+            em.persist(action);
+        }
+        Authentication tokenAuth = new TestingAuthenticationToken(
+                new UtilisateurPrincipal(owner.getId(), "stats", "", List.of()), null);
+
+        WatermarkService.Watermark watermark = watermarks.current(tokenAuth);
+        ActionStatsDTO[] stats = new ActionStatsDTO[1];
+        assertThat(countStatements(() -> stats[0] = statsService.getStats(watermark, today))).isEqualTo(1);
+
+        assertThat(stats[0].getTotals()).extracting("total", "open", "completed", "overdue")
+                .containsExactly(4L, 3L, 1L, 1L);
+        assertThat(stats[0].getByProjet()).extracting("projetId", "title", "total", "open", "overdue")
+                .containsExactly(tuple(projet.getId(), "Projet", 2L, 1L, 1L), tuple(null, null, 2L, 2L, 0L));
+        assertThat(stats[0].getByPriorite()).extracting("priorite", "total", "completed")
+                .containsExactly(tuple(1, 2L, 1L), tuple(2, 1L, 0L), tuple(null, 1L, 0L));
+        assertThat(stats[0].getOpenByEcheance())
+                .containsExactly(Map.entry("overdue", 1L), Map.entry("today", 0L), Map.entry("week", 1L),
+                        Map.entry("later", 0L), Map.entry("none", 1L));
+
+        // Rien n'a changé : servi depuis le cache
+        assertThat(countStatements(() -> statsService.getStats(watermark, today))).isZero();
+
+        // Une écriture fait avancer le compteur : l'entrée en cache n'est plus utilisée
+        service.create(new ActionDTO(null, "Plus tard", false, today.plusDays(30), null, 2), tokenAuth);
+        WatermarkService.Watermark after = watermarks.current(tokenAuth);
+        ActionStatsDTO recomputed = statsService.getStats(after, today);
+        assertThat(recomputed.getTotals().getTotal()).isEqualTo(5);
+        assertThat(recomputed.getOpenByEcheance()).containsEntry("later", 1L);
+    }
+
+    @Test
+    void searchRanksOwnedAndAssignedTasksAndFollowsWrites() {
+        UtilisateurEntity me = utilisateur("chercheur");
+        UtilisateurEntity other = utilisateur("collegue");
+        Authentication auth = new TestingAuthenticationToken(
+                new UtilisateurPrincipal(me.getId(), "chercheur", "", List.of()), null);
+        Authentication otherAuth = new TestingAuthenticationToken(
+                new UtilisateurPrincipal(other.getId(), "collegue", "", List.of()), null);
+
+        ActionDTO inText = new ActionDTO(null, "Préparer", false, null, "Réunion budget avec l'équipe", 1);
+        ActionDTO inTitle = new ActionDTO(null, "Réunion budget", false, null, null, 1);
+        ActionDTO unrelated = new ActionDTO(null, "Courses", false, null, "lait, pain", 1);
+        inText = service.create(inText, auth);
+        inTitle = service.create(inTitle, auth);
+        service.create(unrelated, auth);
+        // Tâche d'un autre utilisateur : visible seulement une fois assignée
+        ActionDTO assigned = new ActionDTO(null, "Budget réunion trimestrielle", false, null, null, 1);
+        assigned.setAssignedUserIds(Set.of(me.getId()));
+        assigned = service.create(assigned, otherAuth);
+        service.create(new ActionDTO(null, "Réunion budget privée", false, null, null, 1), otherAuth);
+        em.flush();
+
+        // Accents et majuscules ignorés ; titre plus pertinent que description, puis plus récent d'abord
+        ActionPageDTO first = service.search("reunion BUDGET", null, 2, auth);
+        assertThat(first.getItems()).extracting(ActionDTO::getId).containsExactly(assigned.getId(), inTitle.getId());
+        ActionPageDTO second = service.search("reunion BUDGET", first.getNextCursor(), 2, auth);
+        assertThat(second.getItems()).extracting(ActionDTO::getId).containsExactly(inText.getId());
+        assertThat(second.getNextCursor()).isNull();
+
+        // Tous les mots doivent être présents
+        assertThat(service.search("budget lait", null, null, auth).getItems()).isEmpty();
+
+        // Modification : l'index suit le nouveau titre, une fois la transaction validée
+        service.patch(inTitle.getId(), Map.of("title", "Facture fournisseur"), null, auth);
+        em.flush();
+        assertThat(service.search("facture", null, null, auth).getItems()).isEmpty();
+        TransactionSynchronizationUtils.triggerAfterCommit();
+        assertThat(service.search("facture", null, null, auth).getItems())
+                .extracting(ActionDTO::getId).containsExactly(inTitle.getId());
+        assertThat(service.search("reunion budget", null, null, auth).getItems())
+                .extracting(ActionDTO::getId).containsExactly(assigned.getId(), inText.getId());
+
+        assertThatThrownBy(() -> service.search(" ", null, null, auth)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> service.search("budget", "pas-un-curseur", null, auth))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void changesSinceTokenReturnOnlyModifiedAndDeletedTasks() {
+        utilisateur("syncer");
+        Authentication auth = new TestingAuthenticationToken("syncer", null);
+        ActionDTO kept = service.create(new ActionDTO(null, "Garder", false, null, null, 1), auth);
+        ActionDTO removed = service.create(new ActionDTO(null, "Supprimer", false, null, null, 1), auth);
+        service.create(new ActionDTO(null, "Intacte", false, null, null, 1), auth);
+
+        // Premier appel sans jeton : liste complète
+        ActionChangesDTO initial = service.getChanges(null, auth);
+        assertThat(initial.isReset()).isTrue();
+        assertThat(initial.getUpdated()).hasSize(3);
+
+        service.patch(kept.getId(), Map.of("completed", true), null, auth);
+        service.delete(removed.getId(), auth);
+        em.flush();
+        em.clear();
+
+        ActionChangesDTO delta = service.getChanges(initial.getToken(), auth);
+        assertThat(delta.isReset()).isFalse();
+        assertThat(delta.getUpdated()).extracting(ActionDTO::getId).containsExactly(kept.getId());
+        assertThat(delta.getUpdated().get(0).getUpdatedAt()).isNotNull();
+        assertThat(delta.getDeleted()).containsExactly(removed.getId());
+        assertThat(delta.getToken()).isGreaterThan(initial.getToken());
+
+        ActionChangesDTO none = service.getChanges(delta.getToken(), auth);
+        assertThat(none.getUpdated()).isEmpty();
+        assertThat(none.getDeleted()).isEmpty();
+
+        // Traces de suppression purgées : un jeton antérieur impose une resynchronisation
+        em.getEntityManager().createQuery("update ActionTombstoneEntity t set t.deletedAt = :old")
+                .setParameter("old", Instant.now().minus(Duration.ofDays(60))).executeUpdate();
+        purger.purge();
+        assertThat(service.getChanges(initial.getToken(), auth).isReset()).isTrue();
+        assertThat(service.getChanges(delta.getToken(), auth).isReset()).isFalse();
+    }
+
+    @Test
+    void writesPublishEventsForOwnerAndAssignees() {
+        UtilisateurEntity owner = utilisateur("notifier");
+        UtilisateurEntity first = utilisateur("first");
+        UtilisateurEntity second = utilisateur("second");
+        Authentication auth = new TestingAuthenticationToken("notifier", null);
+
+        ActionDTO dto = new ActionDTO(null, "Relire", false, null, null, 1);
+        dto.setAssignedUserIds(Set.of(first.getId()));
+        ActionDTO created = service.create(dto, auth);
+        // Réassignée : l'ancien assigné est prévenu aussi (la tâche disparaît de sa liste)
+        service.patch(created.getId(), Map.of("assignedUserIds", List.of(second.getId())), null, auth);
+        service.delete(created.getId(), auth);
+
+        assertThat(events.stream(ActionChangeEvent.class).toList())
+                .extracting(ActionChangeEvent::type, ActionChangeEvent::recipients)
+                .containsExactly(
+                        tuple(ActionChangeEvent.Type.CREATED, Set.of(owner.getId(), first.getId())),
+                        tuple(ActionChangeEvent.Type.UPDATED, Set.of(owner.getId(), first.getId(), second.getId())),
+                        tuple(ActionChangeEvent.Type.DELETED, Set.of(owner.getId(), second.getId())));
+    }
+
+    private ActionBatchOperationDTO operation(String op, Long id, ActionDTO action, Map<String, Object> changes) {
+        ActionBatchOperationDTO operation = new ActionBatchOperationDTO();
+        operation.setOp(op);
+        operation.setId(id);
+        operation.setAction(action);
+        operation.setChanges(changes);
+        return operation;
+    }
+}
@@ -0,0 +1,135 @@
+package com.descodeuses.planit.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.descodeuses.planit.dto.AuthResponse;
+import com.descodeuses.planit.security.CaffeineUserCache;
+import com.descodeuses.planit.security.JwtUtil;
+import com.descodeuses.planit.security.PasswordHashing;
+import com.descodeuses.planit.security.UtilisateurPrincipal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AuthServiceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final PasswordEncoder encoder = new BCryptPasswordEncoder(4);
+    private final UserDetailsService users = mock(UserDetailsService.class);
+    private final CaffeineUserCache userCache = new CaffeineUserCache(registry, 100, 60);
+    private AuthService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    // Même chaîne que SecurityConfig : ProviderManager -> DaoAuthenticationProvider + cache
+    private AuthenticationManager authenticationManager() {
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(users);
+        provider.setPasswordEncoder(encoder);
+        provider.setUserCache(userCache);
+        return new ProviderManager(provider);
+    }
+
+    @Test
+    void loginAuthenticatesOnceAndReusesCachedUser() throws Exception {
+        when(users.loadUserByUsername("alice")).thenReturn(new UtilisateurPrincipal(7L, "alice",
+                encoder.encode("secretpw"), List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+        service = new AuthService(authenticationManager(), new JwtUtil(100), registry, 2, 10);
+
+        AuthResponse first = service.login("alice", "secretpw").get(5, TimeUnit.SECONDS);
+        AuthResponse second = service.login("alice", "secretpw").get(5, TimeUnit.SECONDS);
+
+        assertThat(first.getRole()).isEqualTo("ROLE_USER");
+        assertThat(first.getToken()).isNotBlank();
+        assertThat(second.getRole()).isEqualTo("ROLE_USER");
+        // Le mot de passe effacé après authentification ne l'est pas dans le cache : une seule lecture
+        verify(users, times(1)).loadUserByUsername("alice");
+        assertThat(userCache.getUserFromCache("alice").getPassword()).isNotNull();
+
+        assertThatThrownBy(() -> service.login("alice", "wrong").get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void outdatedHashIsReEncodedOnSuccessfulLogin() throws Exception {
+        String legacy = new BCryptPasswordEncoder(4).encode("secretpw");
+        when(users.loadUserByUsername("bob")).thenReturn(new UtilisateurPrincipal(8L, "bob", legacy,
+                List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+        UserDetailsPasswordService passwords = mock(UserDetailsPasswordService.class);
+        when(passwords.updatePassword(any(), any())).thenAnswer(call -> {
+            UserDetails user = call.getArgument(0);
+            return new UtilisateurPrincipal(8L, user.getUsername(), call.getArgument(1), user.getAuthorities());
+        });
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(users);
+        provider.setPasswordEncoder(PasswordHashing.encoder(5));
+        provider.setUserDetailsPasswordService(passwords);
+        service = new AuthService(new ProviderManager(provider), new JwtUtil(100), registry, 1, 10);
+
+        service.login("bob", "secretpw").get(5, TimeUnit.SECONDS);
+
+        ArgumentCaptor<String> rehashed = ArgumentCaptor.forClass(String.class);
+        verify(passwords).updatePassword(any(), rehashed.capture());
+        assertThat(rehashed.getValue()).startsWith("{bcrypt}$2a$05$");
+        assertThat(PasswordHashing.encoder(5).matches("secretpw", rehashed.getValue())).isTrue();
+    }
+
+    @Test
+    void saturatedPoolRejectsLoginsImmediately() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AuthenticationManager slow = authentication -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new UsernamePasswordAuthenticationToken(new UtilisateurPrincipal(1L, "u", "", List.of()),
+                    null, List.of());
+        };
+        service = new AuthService(slow, new JwtUtil(100), registry, 1, 1);
+
+        CompletableFuture<AuthResponse> running = service.login("u", "p");
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<AuthResponse> queued = service.login("u", "p");
+
+        assertThatThrownBy(() -> service.login("u", "p")).isInstanceOf(RejectedExecutionException.class);
+        assertThat(registry.get("planit.login.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS).getToken()).isNotBlank();
+        assertThat(queued.get(5, TimeUnit.SECONDS).getToken()).isNotBlank();
+    }
+}
@@ -0,0 +1,89 @@
+package com.descodeuses.planit.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.descodeuses.planit.entity.UtilisateurEntity;
+import com.descodeuses.planit.repository.UtilisateurRepository;
+import com.descodeuses.planit.security.UtilisateurPrincipal;
+
+class CurrentUserResolverTest {
+
+    private final UtilisateurRepository repository = mock(UtilisateurRepository.class);
+    private final CurrentUserResolver resolver = new CurrentUserResolver(repository);
+
+    @BeforeEach
+    void bindRequest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @AfterEach
+    void resetRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private UtilisateurEntity user(Long id, String username) {
+        UtilisateurEntity user = new UtilisateurEntity();
+        user.setId(id);
+        user.setUsername(username);
+        return user;
+    }
+
+    @Test
+    void resolvesByUsernameOncePerRequest() {
+        UtilisateurEntity alice = user(1L, "alice");
+        when(repository.findByUsername("alice")).thenReturn(Optional.of(alice));
+        Authentication auth = new UsernamePasswordAuthenticationToken("alice", null, List.of());
+
+        assertThat(resolver.resolve(auth)).isSameAs(alice);
+        assertThat(resolver.resolve(auth)).isSameAs(alice);
+        assertThat(resolver.resolve(auth)).isSameAs(alice);
+
+        verify(repository, times(1)).findByUsername("alice");
+        assertThat(resolver.getLookupCount()).isEqualTo(1);
+    }
+
+    @Test
+    void usesReferenceWhenPrincipalCarriesId() {
+        UtilisateurEntity bob = user(2L, "bob");
+        when(repository.getReferenceById(2L)).thenReturn(bob);
+        UtilisateurPrincipal principal = new UtilisateurPrincipal(2L, "bob", "", List.of());
+        Authentication auth = new UsernamePasswordAuthenticationToken(principal, null, List.of());
+
+        assertThat(resolver.resolve(auth)).isSameAs(bob);
+        assertThat(resolver.resolve(auth)).isSameAs(bob);
+
+        verify(repository, never()).findByUsername("bob");
+        assertThat(resolver.getLookupCount()).isEqualTo(1);
+    }
+
+    @Test
+    void newRequestStartsWithEmptyCache() {
+        when(repository.findByUsername("alice")).thenReturn(Optional.of(user(1L, "alice")));
+        Authentication auth = new UsernamePasswordAuthenticationToken("alice", null, List.of());
+
+        resolver.resolve(auth);
+        bindRequest();
+        assertThat(resolver.getLookupCount()).isZero();
+        resolver.resolve(auth);
+
+        verify(repository, times(2)).findByUsername("alice");
+        assertThat(resolver.getLookupCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,96 @@
+package com.descodeuses.planit.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.descodeuses.planit.entity.LogDocument;
+import com.descodeuses.planit.repository.LogDocumentRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LogDocumentWriterTest {
+
+    // Tailles des lots reçus par le faux repository Mongo
+    private final List<Integer> insertedBatches = new CopyOnWriteArrayList<>();
+    private final LogDocumentRepository repo = mock(LogDocumentRepository.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private LogDocumentWriter writer;
+
+    private LogDocument doc(int i) {
+        LogDocument doc = new LogDocument();
+        doc.setText("log " + i);
+        return doc;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null && writer.isRunning()) {
+            writer.stop();
+        }
+    }
+
+    @Test
+    void flushesFullBatchesAndTheRemainderOnStop() throws InterruptedException {
+        when(repo.insert(anyList())).thenAnswer(invocation -> {
+            insertedBatches.add(invocation.<List<?>>getArgument(0).size());
+            return invocation.getArgument(0);
+        });
+        // Même comportement avec un thread d'écriture virtuel
+        writer = new LogDocumentWriter(repo, registry, 100, 10, 60_000,
+                LogDocumentWriter.OverflowPolicy.DROP_NEWEST, 0, true);
+        writer.start();
+
+        for (int i = 0; i < 25; i++) {
+            writer.enqueue(doc(i));
+        }
+        long deadline = System.currentTimeMillis() + 5000;
+        while (insertedBatches.size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        // Deux lots pleins écrits sans attendre l'intervalle de 60 s
+        assertThat(insertedBatches).containsExactly(10, 10);
+
+        writer.stop();
+        assertThat(insertedBatches).containsExactly(10, 10, 5);
+        assertThat(registry.get("planit.log.written").counter().count()).isEqualTo(25);
+        assertThat(registry.get("planit.log.flush").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void dropsNewLogsWhenTheQueueIsFull() throws InterruptedException {
+        CountDownLatch mongoBlocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(repo.insert(anyList())).thenAnswer(invocation -> {
+            mongoBlocked.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return invocation.getArgument(0);
+        });
+        writer = new LogDocumentWriter(repo, registry, 2, 1, 10,
+                LogDocumentWriter.OverflowPolicy.DROP_NEWEST, 0, false);
+        writer.start();
+
+        // Le premier log occupe le thread d'écriture, bloqué sur un Mongo lent
+        writer.enqueue(doc(0));
+        assertThat(mongoBlocked.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(writer.enqueue(doc(1))).isTrue();
+        assertThat(writer.enqueue(doc(2))).isTrue();
+        assertThat(writer.enqueue(doc(3))).isFalse();
+        assertThat(writer.getQueueSize()).isEqualTo(2);
+        assertThat(registry.get("planit.log.queue.size").gauge().value()).isEqualTo(2);
+        assertThat(registry.get("planit.log.dropped").tag("reason", "overflow").counter().count())
+                .isEqualTo(1);
+
+        release.countDown();
+    }
+}
@@ -0,0 +1,29 @@
+package com.descodeuses.planit.service;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Inspecteur Hibernate des tests : mémorise le SQL envoyé pour vérifier son contenu
+public class SqlCaptureInspector implements StatementInspector {
+
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.add(sql);
+        return sql;
+    }
+
+    static void clear() {
+        STATEMENTS.clear();
+    }
+
+    // Ordres UPDATE visant une table donnée
+    static List<String> updatesOf(String table) {
+        return STATEMENTS.stream()
+                .filter(sql -> sql.toLowerCase().startsWith("update " + table + " "))
+                .toList();
+    }
+}
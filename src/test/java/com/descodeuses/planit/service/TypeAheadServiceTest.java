@@ -0,0 +1,133 @@
+package com.descodeuses.planit.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.descodeuses.planit.dto.ActionDTO;
+import com.descodeuses.planit.dto.ContactDTO;
+import com.descodeuses.planit.dto.TypeAheadDTO;
+import com.descodeuses.planit.repository.ActionRepository;
+import com.descodeuses.planit.repository.ContactRepository;
+import com.descodeuses.planit.repository.ProjetRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TypeAheadServiceTest {
+
+    private final ActionRepository actions = mock(ActionRepository.class);
+    private final ContactRepository contacts = mock(ContactRepository.class);
+    private final ProjetRepository projets = mock(ProjetRepository.class);
+
+    private TypeAheadService service(long memoryBudgetMb) {
+        return new TypeAheadService(actions, contacts, projets, new SimpleMeterRegistry(), memoryBudgetMb, 30);
+    }
+
+    private static List<String> labels(List<TypeAheadDTO> suggestions) {
+        return suggestions.stream().map(TypeAheadDTO::getLabel).toList();
+    }
+
+    private static ActionDTO action(Long id, String title, Long ownerId, Set<Long> assigned, Long version) {
+        ActionDTO dto = new ActionDTO(id, title, false, null, null, null);
+        dto.setUtilisateurId(ownerId);
+        dto.setAssignedUserIds(assigned);
+        dto.setVersion(version);
+        return dto;
+    }
+
+    @Test
+    void buildsOnceAndMatchesWordPrefixesIgnoringCaseAndAccents() {
+        when(actions.findTypeAhead(1L)).thenReturn(List.of(
+                new TypeAheadDTO("action", 10L, "Préparer la réunion", null, 0L),
+                new TypeAheadDTO("action", 11L, "Réunion d'équipe", null, 0L)));
+        when(projets.findTypeAhead(1L)).thenReturn(List.of(new TypeAheadDTO("projet", 20L, "Refonte du site", null, 0L)));
+        when(contacts.findTypeAhead(1L)).thenReturn(
+                List.of(new TypeAheadDTO("contact", 30L, "Rémi Martin", "remi@example.com", 0L)));
+        TypeAheadService service = service(64);
+
+        // Libellé commençant par la saisie d'abord, puis tâches, projets, contacts
+        assertThat(labels(service.suggest(1L, "re", null)))
+                .containsExactly("Réunion d'équipe", "Refonte du site", "Rémi Martin", "Préparer la réunion");
+        assertThat(labels(service.suggest(1L, "REUNION prep", null))).containsExactly("Préparer la réunion");
+        assertThat(labels(service.suggest(1L, "example", null))).containsExactly("Rémi Martin");
+        assertThat(service.suggest(1L, "xyz", null)).isEmpty();
+        assertThat(service.suggest(1L, "  ", null)).isEmpty();
+        assertThat(service.suggest(1L, "re", 2)).hasSize(2);
+
+        verify(actions, times(1)).findTypeAhead(1L);
+        verify(contacts, times(1)).findTypeAhead(1L);
+    }
+
+    @Test
+    void wordsLongerThanIndexedPrefixesAreCheckedInFull() {
+        when(actions.findTypeAhead(1L)).thenReturn(List.of(
+                new TypeAheadDTO("action", 1L, "Internationalisation", null, 0L),
+                new TypeAheadDTO("action", 2L, "Internationaliser", null, 0L)));
+        TypeAheadService service = service(64);
+
+        assertThat(labels(service.suggest(1L, "internationalisa", null))).containsExactly("Internationalisation");
+    }
+
+    @Test
+    void followsWritesWithoutRebuildingAndIgnoresStaleVersions() {
+        when(actions.findTypeAhead(1L)).thenReturn(List.of(new TypeAheadDTO("action", 10L, "Budget", null, 1L)));
+        when(actions.findTypeAhead(2L)).thenReturn(List.of(new TypeAheadDTO("action", 10L, "Budget", null, 1L)));
+        TypeAheadService service = service(64);
+        service.suggest(1L, "b", null);
+        service.suggest(2L, "b", null);
+
+        // Renommée et désassignée de l'utilisateur 2
+        service.onActionChange(new ActionChangeEvent(ActionChangeEvent.Type.UPDATED, 10L,
+                action(10L, "Bilan annuel", 1L, Set.of(), 2L), Set.of(1L, 2L)));
+        assertThat(labels(service.suggest(1L, "bilan", null))).containsExactly("Bilan annuel");
+        assertThat(service.suggest(1L, "budget", null)).isEmpty();
+        assertThat(service.suggest(2L, "b", null)).isEmpty();
+
+        // Un événement plus ancien arrivé en retard ne remet pas l'ancien titre
+        service.onActionChange(new ActionChangeEvent(ActionChangeEvent.Type.UPDATED, 10L,
+                action(10L, "Budget", 1L, Set.of(), 1L), Set.of(1L)));
+        assertThat(labels(service.suggest(1L, "b", null))).containsExactly("Bilan annuel");
+
+        ContactDTO contact = new ContactDTO(30L, "Dupont", "Anne", "anne@example.com", null);
+        contact.setVersion(0L);
+        service.contactSaved(1L, contact);
+        assertThat(labels(service.suggest(1L, "dup", null))).containsExactly("Anne Dupont");
+        service.contactDeleted(1L, 30L);
+        assertThat(service.suggest(1L, "dup", null)).isEmpty();
+
+        service.onActionChange(new ActionChangeEvent(ActionChangeEvent.Type.DELETED, 10L, null, Set.of(1L)));
+        assertThat(service.suggest(1L, "b", null)).isEmpty();
+
+        verify(actions, times(1)).findTypeAhead(1L);
+    }
+
+    @Test
+    void evictsIndexesBeyondMemoryBudget() {
+        List<TypeAheadDTO> many = java.util.stream.LongStream.range(0, 300)
+                .mapToObj(i -> new TypeAheadDTO("action", i, "Tâche numéro " + i + " à planifier", null, 0L))
+                .toList();
+        for (long user = 1; user <= 10; user++) {
+            when(actions.findTypeAhead(user)).thenReturn(many);
+        }
+        TypeAheadService service = service(1);
+
+        long perUser = 0;
+        for (long user = 1; user <= 10; user++) {
+            assertThat(service.suggest(user, "planif", 1)).hasSize(1);
+            perUser = Math.max(perUser, service.estimatedBytes(user));
+        }
+        service.cleanUp();
+
+        long resident = java.util.stream.LongStream.rangeClosed(1, 10).filter(u -> service.estimatedBytes(u) > 0).count();
+        assertThat(perUser).isGreaterThan(0);
+        assertThat(resident * perUser).isLessThanOrEqualTo(1024 * 1024);
+        assertThat(resident).isLessThan(10);
+    }
+}
@@ -0,0 +1,90 @@
+package com.descodeuses.planit.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.descodeuses.planit.dto.ActionDTO;
+import com.descodeuses.planit.dto.ContactDTO;
+import com.descodeuses.planit.dto.ProjetDTO;
+import com.descodeuses.planit.dto.WorkspaceDTO;
+
+import jakarta.persistence.EntityNotFoundException;
+
+class WorkspaceServiceTest {
+
+    private final ProjetService projets = mock(ProjetService.class);
+    private final ActionService actions = mock(ActionService.class);
+    private final ContactService contacts = mock(ContactService.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final Authentication auth = new TestingAuthenticationToken("me", null);
+
+    private final WorkspaceService service = new WorkspaceService(projets, actions, contacts, transactionManager,
+            executor);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    // Chaque lecture attend que les trois autres aient démarré : en séquentiel, aucune ne se terminerait
+    private <T> T whenAllStarted(CountDownLatch started, T result) throws InterruptedException {
+        started.countDown();
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        return result;
+    }
+
+    @Test
+    void readsRunConcurrentlyEachInItsOwnTransaction() {
+        TransactionStatus status = new SimpleTransactionStatus();
+        when(transactionManager.getTransaction(any())).thenReturn(status);
+
+        CountDownLatch started = new CountDownLatch(4);
+        ProjetDTO projet = new ProjetDTO(1L, "Projet", null);
+        ActionDTO owned = new ActionDTO(2L, "A faire", false, null, null, 1);
+        ActionDTO assigned = new ActionDTO(3L, "Assignée", false, null, null, 1);
+        ContactDTO contact = new ContactDTO(4L, "Nom", "Prenom", "c@test.fr", "06");
+        when(projets.getMyProjects(auth)).thenAnswer(i -> whenAllStarted(started, List.of(projet)));
+        when(actions.getAllByUser(auth)).thenAnswer(i -> whenAllStarted(started, List.of(owned)));
+        when(actions.getAssignedToMe(auth)).thenAnswer(i -> whenAllStarted(started, List.of(assigned)));
+        when(contacts.getAllByUser(auth)).thenAnswer(i -> whenAllStarted(started, List.of(contact)));
+
+        WorkspaceDTO workspace = service.get(auth);
+
+        assertThat(workspace.getProjets()).containsExactly(projet);
+        assertThat(workspace.getActions()).containsExactly(owned);
+        assertThat(workspace.getAssignedActions()).containsExactly(assigned);
+        assertThat(workspace.getContacts()).containsExactly(contact);
+        verify(transactionManager, times(4)).commit(status);
+    }
+
+    @Test
+    void failureOfOneReadIsRethrownUnwrapped() {
+        when(transactionManager.getTransaction(any()))
+                .thenAnswer(i -> new SimpleTransactionStatus());
+        when(contacts.getAllByUser(auth)).thenThrow(new EntityNotFoundException("Utilisateur introuvable"));
+
+        assertThatThrownBy(() -> service.get(auth))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessage("Utilisateur introuvable");
+    }
+}